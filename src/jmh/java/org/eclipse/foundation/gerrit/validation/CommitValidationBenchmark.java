@@ -0,0 +1,80 @@
+/**
+ * ***************************************************************************** Copyright (c) 2025
+ * Eclipse Foundation and others. All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0 which accompanies this
+ * distribution, and is available at http://www.eclipse.org/legal/epl-v10.html
+ * *****************************************************************************
+ */
+package org.eclipse.foundation.gerrit.validation;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the receive path: {@link BaseEclipseCommitValidator#validate} for a single commit
+ * and {@link EclipseCommitValidationListener#onCommitReceived} for all the commits of a push.
+ *
+ * <p>The sample time mode reports the latency percentiles (p99 included); run with {@code -prof gc}
+ * for the allocation rate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class CommitValidationBenchmark {
+  /** Number of new commits in a push. */
+  @Param({"1", "100", "1000"})
+  int pushSize;
+
+  /** Size of the message body of each commit, in bytes. */
+  @Param({"200", "65536"})
+  int bodyBytes;
+
+  /** Simulated latency of the ECA API, in milliseconds. */
+  @Param({"0"})
+  long serverLatencyMillis;
+
+  private EcaBenchmarkEnvironment env;
+  private List<ObjectId> commits;
+  private RevCommit head;
+
+  @Setup(Level.Trial)
+  public void setUp() throws Exception {
+    env = new EcaBenchmarkEnvironment(serverLatencyMillis);
+    commits = env.createCommits(pushSize, bodyBytes);
+    head = env.parse(commits.get(commits.size() - 1));
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    env.close();
+  }
+
+  @Benchmark
+  public ValidationResponse validateCommit() throws Exception {
+    return env.listener.validate(
+        EcaBenchmarkEnvironment.PROJECT, head.getAuthorIdent(), head.getCommitterIdent(), head);
+  }
+
+  @Benchmark
+  public int push() throws Exception {
+    return env.push(commits);
+  }
+}
@@ -0,0 +1,261 @@
+/**
+ * ***************************************************************************** Copyright (c) 2025
+ * Eclipse Foundation and others. All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0 which accompanies this
+ * distribution, and is available at http://www.eclipse.org/legal/epl-v10.html
+ * *****************************************************************************
+ */
+package org.eclipse.foundation.gerrit.validation;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.google.common.base.Strings;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.FluentIterable;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.gerrit.entities.Account;
+import com.google.gerrit.entities.BranchNameKey;
+import com.google.gerrit.entities.Change;
+import com.google.gerrit.entities.PatchSet;
+import com.google.gerrit.entities.Project;
+import com.google.gerrit.metrics.DisabledMetricMaker;
+import com.google.gerrit.server.IdentifiedUser;
+import com.google.gerrit.server.account.GroupBackend;
+import com.google.gerrit.server.config.PluginConfig;
+import com.google.gerrit.server.config.PluginConfigFactory;
+import com.google.gerrit.server.events.CommitReceivedEvent;
+import com.google.gerrit.server.git.GitRepositoryManager;
+import com.google.gerrit.server.project.ProjectCache;
+import com.google.gerrit.server.project.ProjectState;
+import com.google.gerrit.server.query.change.ChangeData;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.eclipse.jgit.internal.storage.dfs.DfsRepositoryDescription;
+import org.eclipse.jgit.internal.storage.dfs.InMemoryRepository;
+import org.eclipse.jgit.lib.CommitBuilder;
+import org.eclipse.jgit.lib.Config;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectInserter;
+import org.eclipse.jgit.lib.ObjectReader;
+import org.eclipse.jgit.lib.PersonIdent;
+import org.eclipse.jgit.lib.TreeFormatter;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.transport.ReceiveCommand;
+
+/**
+ * The plugin validators wired against an in-memory repository and a {@link MockEcaServer}, with
+ * the Gerrit services they depend on mocked.
+ *
+ * <p>The identity cache and the verdict store are disabled so that every validation goes through
+ * the request building, the HTTP client and the JSON serialization.
+ */
+final class EcaBenchmarkEnvironment implements AutoCloseable {
+  static final String PLUGIN_NAME = "eca-validation";
+  static final Project.NameKey PROJECT = Project.nameKey("benchmark/project");
+
+  final InMemoryRepository repo;
+  final MockEcaServer server;
+  final RetrofitFactory retrofitFactory;
+  final EclipseCommitValidationListener listener;
+  final ECASignedSubmitRequirement submitRequirement;
+
+  private final AtomicInteger pushes = new AtomicInteger();
+  private final PersonIdent ident =
+      new PersonIdent("Benchmark Author", "benchmark.author@example.org");
+
+  EcaBenchmarkEnvironment(long serverLatencyMillis) throws Exception {
+    repo = new InMemoryRepository(new DfsRepositoryDescription(PROJECT.get()));
+    server = new MockEcaServer(serverLatencyMillis);
+
+    Config cfg = new Config();
+    cfg.setBoolean("plugin", PLUGIN_NAME, "enabled", true);
+    PluginConfig pluginConfig = PluginConfig.create(PLUGIN_NAME, cfg, null);
+    ProjectState projectState = mock(ProjectState.class);
+    ProjectCache projectCache = mock(ProjectCache.class);
+    when(projectCache.get(PROJECT)).thenReturn(Optional.of(projectState));
+    when(projectState.parents()).thenReturn(FluentIterable.of());
+    PluginConfigFactory pluginCfgFactory = mock(PluginConfigFactory.class);
+    when(pluginCfgFactory.getFromProjectConfigWithInheritance(projectState, PLUGIN_NAME))
+        .thenReturn(pluginConfig);
+    GitRepositoryManager repoManager = mock(GitRepositoryManager.class);
+    // callers close the repository they opened
+    when(repoManager.openRepository(PROJECT))
+        .thenAnswer(
+            invocation -> {
+              repo.incrementOpen();
+              return repo;
+            });
+
+    EcaMetrics metrics = new EcaMetrics(new DisabledMetricMaker());
+    retrofitFactory = new RetrofitFactory(5, 300, 64, 16, metrics, server.router());
+    retrofitFactory.start();
+    EcaIdentityCache identityCache =
+        new EcaIdentityCache(
+            CacheBuilder.newBuilder().maximumSize(0).build(),
+            CacheBuilder.newBuilder().build(),
+            EcaSharedStore.LOCAL,
+            new Config(),
+            PLUGIN_NAME);
+    EcaCircuitBreaker circuitBreaker = new EcaCircuitBreaker(0, 30);
+    InFlightValidations inFlight = new InFlightValidations(metrics);
+    EcaBackend backend =
+        new ApiEcaBackend(
+            retrofitFactory,
+            circuitBreaker,
+            APIService.DEFAULT_BASE_URL,
+            APIService.DEFAULT_PATH,
+            Optional.empty());
+    EcaProjectConfig.Factory projectConfigs =
+        new EcaProjectConfig.Factory(projectCache, pluginCfgFactory, PLUGIN_NAME);
+    EcaExclusions.Checker exclusionChecker =
+        new EcaExclusions.Checker(mock(GroupBackend.class));
+    EcaVerdictStore verdictStore =
+        new EcaVerdictStore(
+            CacheBuilder.newBuilder().maximumSize(0).build(),
+            EcaSharedStore.LOCAL,
+            new Config(),
+            PLUGIN_NAME);
+
+    listener =
+        new EclipseCommitValidationListener(
+            PLUGIN_NAME,
+            projectConfigs,
+            backend,
+            identityCache,
+            inFlight,
+            metrics,
+            repoManager,
+            verdictStore,
+            exclusionChecker,
+            mock(EcaDeferredValidator.class));
+    submitRequirement =
+        new ECASignedSubmitRequirement(
+            repoManager,
+            projectConfigs,
+            PLUGIN_NAME,
+            backend,
+            identityCache,
+            inFlight,
+            metrics,
+            verdictStore,
+            exclusionChecker,
+            mock(IdentifiedUser.GenericFactory.class),
+            // disabled, the verdicts are computed on demand
+            mock(EcaVerdictPrecomputer.class),
+            mock(EcaDeferredValidator.class));
+  }
+
+  /**
+   * Creates a linear history of commits, each with a message of the given size.
+   *
+   * @param count the number of commits
+   * @param bodyBytes the approximate size of the message body of each commit
+   * @return the commits, oldest first
+   */
+  List<ObjectId> createCommits(int count, int bodyBytes) throws IOException {
+    List<ObjectId> commits = new ArrayList<>(count);
+    String body = Strings.repeat("Lorem ipsum dolor sit amet.\n", Math.max(1, bodyBytes / 28));
+    try (ObjectInserter ins = repo.newObjectInserter()) {
+      ObjectId tree = ins.insert(new TreeFormatter());
+      ObjectId parent = null;
+      for (int i = 0; i < count; i++) {
+        CommitBuilder cb = new CommitBuilder();
+        cb.setTreeId(tree);
+        if (parent != null) {
+          cb.setParentId(parent);
+        }
+        cb.setAuthor(ident);
+        cb.setCommitter(ident);
+        cb.setMessage("Benchmark commit " + i + "\n\n" + body);
+        parent = ins.insert(cb);
+        commits.add(parent);
+      }
+      ins.flush();
+    }
+    return commits;
+  }
+
+  RevCommit parse(ObjectId id) throws IOException {
+    try (RevWalk rw = new RevWalk(repo)) {
+      RevCommit c = rw.parseCommit(id);
+      rw.parseBody(c);
+      return c;
+    }
+  }
+
+  /**
+   * Runs the commit validation listener on each commit of a push, as {@code ReceiveCommits} does.
+   *
+   * @param commits the new commits of the push, oldest first
+   * @return the number of validation messages returned to the client
+   */
+  int push(List<ObjectId> commits) throws Exception {
+    // a distinct ref per push, so that consecutive pushes do not share their batch
+    String refName = "refs/heads/benchmark-" + pushes.incrementAndGet();
+    ReceiveCommand cmd =
+        new ReceiveCommand(ObjectId.zeroId(), commits.get(commits.size() - 1), refName);
+    Project project = Project.builder(PROJECT).build();
+    int messages = 0;
+    try (ObjectReader reader = repo.newObjectReader()) {
+      for (ObjectId id : commits) {
+        try (CommitReceivedEvent event =
+            new CommitReceivedEvent(
+                cmd,
+                project,
+                refName,
+                ImmutableListMultimap.of(),
+                repo.getConfig(),
+                reader,
+                id,
+                null)) {
+          messages += listener.onCommitReceived(event).size();
+        }
+      }
+    }
+    return messages;
+  }
+
+  /**
+   * Creates open changes whose current patch sets are the given commits.
+   *
+   * @param commits the commits of the changes
+   * @return the data of the changes
+   */
+  List<ChangeData> createChanges(List<ObjectId> commits) {
+    List<ChangeData> changes = new ArrayList<>(commits.size());
+    for (int i = 0; i < commits.size(); i++) {
+      Change.Id id = Change.id(i + 1);
+      Change change =
+          new Change(
+              Change.key("I" + commits.get(i).name()),
+              id,
+              Account.id(1000000),
+              BranchNameKey.create(PROJECT, "master"),
+              Instant.now());
+      PatchSet ps = mock(PatchSet.class);
+      when(ps.commitId()).thenReturn(commits.get(i));
+      ChangeData cd = mock(ChangeData.class);
+      when(cd.change()).thenReturn(change);
+      when(cd.getId()).thenReturn(id);
+      when(cd.project()).thenReturn(PROJECT);
+      when(cd.currentPatchSet()).thenReturn(ps);
+      when(cd.getAuthor()).thenReturn(ident);
+      when(cd.getCommitter()).thenReturn(ident);
+      changes.add(cd);
+    }
+    return changes;
+  }
+
+  @Override
+  public void close() {
+    retrofitFactory.stop();
+    server.close();
+    repo.close();
+  }
+}
@@ -0,0 +1,70 @@
+/**
+ * ***************************************************************************** Copyright (c) 2025
+ * Eclipse Foundation and others. All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0 which accompanies this
+ * distribution, and is available at http://www.eclipse.org/legal/epl-v10.html
+ * *****************************************************************************
+ */
+package org.eclipse.foundation.gerrit.validation;
+
+import com.google.gerrit.server.query.change.ChangeData;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark of {@link ECASignedSubmitRequirement#evaluate} over the changes of a query result, as
+ * when a dashboard or the {@code has:signed_eca-validation} operand is evaluated.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class SubmitRequirementBenchmark {
+  /** Number of changes evaluated. */
+  @Param({"100"})
+  int changes;
+
+  /** Simulated latency of the ECA API, in milliseconds. */
+  @Param({"0"})
+  long serverLatencyMillis;
+
+  private EcaBenchmarkEnvironment env;
+  private List<ChangeData> changeData;
+
+  @Setup(Level.Trial)
+  public void setUp() throws Exception {
+    env = new EcaBenchmarkEnvironment(serverLatencyMillis);
+    changeData = env.createChanges(env.createCommits(changes, 200));
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    env.close();
+  }
+
+  @Benchmark
+  public int evaluateChanges() {
+    int satisfied = 0;
+    for (ChangeData cd : changeData) {
+      if (env.submitRequirement.evaluate(cd)) {
+        satisfied++;
+      }
+    }
+    return satisfied;
+  }
+}
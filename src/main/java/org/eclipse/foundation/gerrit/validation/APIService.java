@@ -14,12 +14,24 @@ import java.util.concurrent.CompletableFuture;
 import okhttp3.HttpUrl;
 import retrofit2.Response;
 import retrofit2.http.Body;
+import retrofit2.http.Header;
 import retrofit2.http.POST;
+import retrofit2.http.Url;
 
 interface APIService {
 
-  static final HttpUrl BASE_URL = HttpUrl.get("https://api.eclipse.org/");
+  static final HttpUrl DEFAULT_BASE_URL = HttpUrl.get("https://api.eclipse.org/");
 
-  @POST("/git/eca")
-  CompletableFuture<Response<ValidationResponse>> validate(@Body ValidationRequest request);
+  static final String DEFAULT_PATH = "git/eca";
+
+  /**
+   * @param url the URL of the validation endpoint
+   * @param authorization the value of the {@code Authorization} header, omitted if null
+   * @param request the validation request
+   */
+  @POST
+  CompletableFuture<Response<ValidationResponse>> validate(
+      @Url HttpUrl url,
+      @Header(RetrofitFactory.AUTHORIZATION) String authorization,
+      @Body ValidationRequest request);
 }
@@ -0,0 +1,40 @@
+/**
+ * ***************************************************************************** Copyright (c) 2025
+ * Eclipse Foundation and others. All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0 which accompanies this
+ * distribution, and is available at http://www.eclipse.org/legal/epl-v10.html
+ * *****************************************************************************
+ */
+package org.eclipse.foundation.gerrit.validation;
+
+import com.google.auto.value.AutoValue;
+import com.squareup.moshi.JsonAdapter;
+import com.squareup.moshi.Moshi;
+
+/** Notification that the ECA of a person was signed or revoked, sent by the ECA service. */
+@AutoValue
+public abstract class AgreementEvent {
+  public abstract String email();
+
+  /** Whether the agreement was signed, false if it was revoked. */
+  public abstract boolean signed();
+
+  public static JsonAdapter<AgreementEvent> jsonAdapter(Moshi moshi) {
+    return new AutoValue_AgreementEvent.MoshiJsonAdapter(moshi);
+  }
+
+  static AgreementEvent create(String email, boolean signed) {
+    return new AutoValue_AgreementEvent(email, signed);
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder builder = new StringBuilder();
+    builder.append("AgreementEvent [email()=");
+    builder.append(email());
+    builder.append(", signed()=");
+    builder.append(signed());
+    builder.append("]");
+    return builder.toString();
+  }
+}
@@ -0,0 +1,91 @@
+/**
+ * ***************************************************************************** Copyright (c) 2025
+ * Eclipse Foundation and others. All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0 which accompanies this
+ * distribution, and is available at http://www.eclipse.org/legal/epl-v10.html
+ * *****************************************************************************
+ */
+package org.eclipse.foundation.gerrit.validation;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.common.flogger.FluentLogger;
+import com.google.gerrit.extensions.annotations.PluginName;
+import com.google.gerrit.server.config.GerritServerConfig;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.squareup.moshi.JsonAdapter;
+import com.squareup.moshi.JsonDataException;
+import com.squareup.moshi.JsonEncodingException;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.util.Optional;
+import java.util.regex.Pattern;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import okio.Okio;
+import org.eclipse.jgit.lib.Config;
+
+/**
+ * Receives the agreement changes notified by the ECA service, as a JSON {@link AgreementEvent}
+ * posted with the shared secret in the {@value #SECRET_HEADER} header.
+ *
+ * <p>The endpoint is disabled unless {@code webhookSecret} is configured.
+ */
+@Singleton
+class AgreementWebhookServlet extends HttpServlet {
+  private static final long serialVersionUID = 1L;
+  private static final FluentLogger logger = FluentLogger.forEnclosingClass();
+
+  static final String SECRET_HEADER = "X-ECA-Webhook-Secret";
+
+  private static final Pattern EMAIL = Pattern.compile("[^\\s\"\\\\()]+@[^\\s\"\\\\()]+");
+
+  private final transient Optional<byte[]> secret;
+  private final transient EcaAgreementUpdater updater;
+  private final transient JsonAdapter<AgreementEvent> adapter;
+
+  @Inject
+  AgreementWebhookServlet(
+      @GerritServerConfig Config cfg,
+      @PluginName String pluginName,
+      EcaAgreementUpdater updater,
+      RetrofitFactory retrofitFactory) {
+    this.secret =
+        Optional.ofNullable(cfg.getString("plugin", pluginName, "webhookSecret"))
+            .filter(s -> !s.isEmpty())
+            .map(s -> s.getBytes(UTF_8));
+    this.updater = updater;
+    this.adapter = retrofitFactory.adapter(AgreementEvent.class).get();
+  }
+
+  @Override
+  protected void doPost(HttpServletRequest req, HttpServletResponse rsp) throws IOException {
+    if (!secret.isPresent()) {
+      rsp.sendError(HttpServletResponse.SC_NOT_FOUND);
+      return;
+    }
+    String given = req.getHeader(SECRET_HEADER);
+    if (given == null || !MessageDigest.isEqual(secret.get(), given.getBytes(UTF_8))) {
+      logger.atWarning().log("Rejected agreement notification from %s", req.getRemoteAddr());
+      rsp.sendError(HttpServletResponse.SC_FORBIDDEN);
+      return;
+    }
+
+    AgreementEvent event;
+    try {
+      event = adapter.fromJson(Okio.buffer(Okio.source(req.getInputStream())));
+    } catch (JsonDataException | JsonEncodingException e) {
+      rsp.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+      return;
+    }
+    if (event == null || !EMAIL.matcher(event.email()).matches()) {
+      rsp.sendError(HttpServletResponse.SC_BAD_REQUEST, "invalid email");
+      return;
+    }
+
+    updater.update(event);
+    rsp.setStatus(HttpServletResponse.SC_ACCEPTED);
+  }
+}
@@ -0,0 +1,108 @@
+/**
+ * ***************************************************************************** Copyright (c) 2025
+ * Eclipse Foundation and others. All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0 which accompanies this
+ * distribution, and is available at http://www.eclipse.org/legal/epl-v10.html
+ * *****************************************************************************
+ */
+package org.eclipse.foundation.gerrit.validation;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.flogger.FluentLogger;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import org.eclipse.foundation.gerrit.validation.CommitStatus.CommitStatusMessage;
+import org.eclipse.jgit.internal.storage.file.FileSnapshot;
+
+/**
+ * Offline backend validating the commits against a local file listing the emails covered by an
+ * ECA, one per line. Blank lines and lines starting with {@code #} are ignored. The file is read
+ * again when it changes.
+ *
+ * <p>Every project is considered tracked, so that the commits of unlisted identities fail.
+ */
+final class AllowListEcaBackend implements EcaBackend {
+  private static final FluentLogger logger = FluentLogger.forEnclosingClass();
+
+  private static final int PASSED_CODE = 200;
+  private static final int FAILED_CODE = 403;
+
+  private final Path file;
+
+  private FileSnapshot snapshot = FileSnapshot.MISSING_FILE;
+  private Set<String> emails = ImmutableSet.of();
+
+  AllowListEcaBackend(Path file) {
+    this.file = file;
+  }
+
+  @Override
+  public CompletableFuture<ValidationResponse> validate(
+      ValidationRequest request, int timeoutSecs) {
+    Set<String> allowed;
+    try {
+      allowed = reloadIfModified();
+    } catch (IOException e) {
+      return EcaBackend.failedFuture(e);
+    }
+
+    Map<String, CommitStatus> statuses = new LinkedHashMap<>();
+    for (Commit commit : request.commits()) {
+      Set<String> identities = new LinkedHashSet<>(2);
+      identities.add(commit.author().mail());
+      identities.add(commit.committer().mail());
+      List<CommitStatusMessage> messages = new ArrayList<>(identities.size());
+      List<CommitStatusMessage> errors = new ArrayList<>(1);
+      for (String email : identities) {
+        if (allowed.contains(email.trim().toLowerCase(Locale.US))) {
+          messages.add(
+              CommitStatusMessage.create(
+                  PASSED_CODE,
+                  String.format("%s is covered by the necessary legal agreements.", email)));
+        } else {
+          CommitStatusMessage error =
+              CommitStatusMessage.create(
+                  FAILED_CODE,
+                  String.format(
+                      "%s is not covered by the necessary legal agreements (allow-list).", email));
+          messages.add(error);
+          errors.add(error);
+        }
+      }
+      statuses.put(commit.hash(), CommitStatus.create(messages, ImmutableList.of(), errors));
+    }
+    return CompletableFuture.completedFuture(
+        BaseEclipseCommitValidator.merge(statuses, true, Instant.now().toString()));
+  }
+
+  private synchronized Set<String> reloadIfModified() throws IOException {
+    if (!snapshot.isModified(file.toFile())) {
+      return emails;
+    }
+    FileSnapshot newSnapshot = FileSnapshot.save(file.toFile());
+    Set<String> newEmails = new LinkedHashSet<>();
+    for (String line : Files.readAllLines(file, UTF_8)) {
+      line = line.trim();
+      if (!line.isEmpty() && !line.startsWith("#")) {
+        newEmails.add(line.toLowerCase(Locale.US));
+      }
+    }
+    emails = ImmutableSet.copyOf(newEmails);
+    snapshot = newSnapshot;
+    logger.atInfo().log("Loaded %d emails from the ECA allow-list %s", emails.size(), file);
+    return emails;
+  }
+}
@@ -0,0 +1,118 @@
+/**
+ * ***************************************************************************** Copyright (c) 2025
+ * Eclipse Foundation and others. All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0 which accompanies this
+ * distribution, and is available at http://www.eclipse.org/legal/epl-v10.html
+ * *****************************************************************************
+ */
+package org.eclipse.foundation.gerrit.validation;
+
+import com.google.common.flogger.FluentLogger;
+import com.google.gerrit.server.git.validators.CommitValidationException;
+import com.squareup.moshi.JsonAdapter;
+import com.squareup.moshi.JsonEncodingException;
+import java.io.IOException;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import okhttp3.HttpUrl;
+import okhttp3.ResponseBody;
+import okio.BufferedSource;
+import retrofit2.Response;
+
+/** Backend sending the validation requests to the ECA API, through the circuit breaker. */
+final class ApiEcaBackend implements EcaBackend {
+  private static final FluentLogger logger = FluentLogger.forEnclosingClass();
+
+  private final RetrofitFactory retrofitFactory;
+  private final EcaCircuitBreaker circuitBreaker;
+  private final HttpUrl baseUrl;
+  private final HttpUrl endpoint;
+  private final String authorization;
+  private final JsonAdapter<ValidationResponse> responseAdapter;
+
+  /**
+   * @param retrofitFactory the factory of the HTTP services
+   * @param circuitBreaker the circuit breaker protecting the API
+   * @param baseUrl the base URL of the API
+   * @param path the path of the validation endpoint, relative to the base URL
+   * @param token the bearer token sent to the API, if any
+   */
+  ApiEcaBackend(
+      RetrofitFactory retrofitFactory,
+      EcaCircuitBreaker circuitBreaker,
+      HttpUrl baseUrl,
+      String path,
+      Optional<String> token) {
+    this.retrofitFactory = retrofitFactory;
+    this.circuitBreaker = circuitBreaker;
+    this.baseUrl = baseUrl;
+    this.endpoint = baseUrl.resolve(path);
+    if (this.endpoint == null) {
+      throw new IllegalArgumentException("Invalid ECA API path " + path);
+    }
+    this.authorization = token.map(t -> "Bearer " + t).orElse(null);
+    this.responseAdapter =
+        retrofitFactory
+            .adapter(ValidationResponse.class)
+            .orElseThrow(
+                () ->
+                    new IllegalStateException(
+                        "Cannot process validation responses, not continuing"));
+  }
+
+  @Override
+  public CompletableFuture<ValidationResponse> validate(
+      ValidationRequest request, int timeoutSecs) {
+    if (!circuitBreaker.tryAcquire()) {
+      logger.atFine().log(
+          "Circuit open, not calling the ECA service for project %s", request.repoUrl());
+      return EcaBackend.failedFuture(new EcaCircuitBreaker.OpenCircuitException());
+    }
+
+    CompletableFuture<Response<ValidationResponse>> call;
+    try {
+      call =
+          retrofitFactory
+              .newService(baseUrl, timeoutSecs, APIService.class)
+              .validate(endpoint, authorization, request);
+    } catch (RuntimeException e) {
+      // the request was acquired, it must be released for the circuit to leave half-open
+      circuitBreaker.onFailure();
+      return EcaBackend.failedFuture(e);
+    }
+    return call.whenComplete(
+            (rawResponse, failure) -> {
+              if (failure != null || rawResponse.code() >= 500) {
+                circuitBreaker.onFailure();
+              } else {
+                circuitBreaker.onSuccess();
+              }
+            })
+        .thenApply(this::toValidationResponse);
+  }
+
+  private ValidationResponse toValidationResponse(Response<ValidationResponse> rawResponse) {
+    ValidationResponse response;
+    // handle error responses (okhttp doesn't assume error types)
+    if (rawResponse.isSuccessful()) {
+      response = rawResponse.body();
+    } else {
+      // auto close the response resources after fetching
+      try (ResponseBody err = rawResponse.errorBody();
+          BufferedSource src = err.source()) {
+        response = this.responseAdapter.fromJson(src);
+      } catch (JsonEncodingException e) {
+        logger.atSevere().withCause(e).log("%s", e.getMessage());
+        throw new CompletionException(
+            new CommitValidationException(
+                "An error happened while retrieving validation response, please contact the administrator if this error persists",
+                e));
+      } catch (IOException e) {
+        throw new CompletionException(e);
+      }
+    }
+    logger.atFine().log("Response object: %s", response);
+    return response;
+  }
+}
@@ -9,48 +9,49 @@
  */
 package org.eclipse.foundation.gerrit.validation;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.flogger.FluentLogger;
 import com.google.gerrit.entities.Project;
 import com.google.gerrit.extensions.annotations.PluginName;
-import com.google.gerrit.server.config.PluginConfigFactory;
 import com.google.gerrit.server.git.validators.CommitValidationException;
 import com.google.gerrit.server.git.validators.CommitValidationMessage;
-import com.google.gerrit.server.project.NoSuchProjectException;
-import com.squareup.moshi.JsonAdapter;
-import com.squareup.moshi.JsonEncodingException;
-import java.io.IOException;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutionException;
-import okhttp3.ResponseBody;
-import okio.BufferedSource;
+import org.eclipse.foundation.gerrit.validation.CommitStatus.CommitStatusMessage;
 import org.eclipse.jgit.lib.PersonIdent;
 import org.eclipse.jgit.revwalk.RevCommit;
-import retrofit2.Response;
 
 abstract class BaseEclipseCommitValidator {
   private static final FluentLogger logger = FluentLogger.forEnclosingClass();
-  private static final int DEFAULT_API_TIMEOUT_SECS = 20;
 
   final String pluginName;
-  private final JsonAdapter<ValidationResponse> responseAdapter;
-  final PluginConfigFactory pluginCfgFactory;
-  private final RetrofitFactory retrofitFactory;
+  final EcaProjectConfig.Factory projectConfigs;
+  private final EcaBackend backend;
+  private final EcaIdentityCache identityCache;
+  private final InFlightValidations inFlight;
+  final EcaMetrics metrics;
 
   public BaseEclipseCommitValidator(
-      PluginConfigFactory pluginCfgFactory, @PluginName String pluginName) {
-    this.pluginCfgFactory = pluginCfgFactory;
+      EcaProjectConfig.Factory projectConfigs,
+      @PluginName String pluginName,
+      EcaBackend backend,
+      EcaIdentityCache identityCache,
+      InFlightValidations inFlight,
+      EcaMetrics metrics) {
+    this.projectConfigs = projectConfigs;
     this.pluginName = pluginName;
-    this.retrofitFactory = new RetrofitFactory();
-    Optional<JsonAdapter<ValidationResponse>> adapter =
-        retrofitFactory.adapter(ValidationResponse.class);
-    if (adapter.isEmpty()) {
-      throw new IllegalStateException("Cannot process validation responses, not continuing");
-    }
-    this.responseAdapter = adapter.get();
+    this.backend = backend;
+    this.identityCache = identityCache;
+    this.inFlight = inFlight;
+    this.metrics = metrics;
   }
 
   /**
@@ -62,104 +63,214 @@ abstract class BaseEclipseCommitValidator {
       PersonIdent committerIdent,
       RevCommit commit)
       throws CommitValidationException {
+    return validate(
+        project,
+        Collections.singletonList(
+            payload(project).toRequestCommit(commit, authorIdent, committerIdent, true)));
+  }
+
+  /**
+   * Validate a list of commits of the same project with a single call to the ECA API. Commits whose
+   * identities have a cached verdict are resolved locally and not sent to the API.
+   *
+   * @param project the project the commits belong to
+   * @param commits the request representation of the commits to validate
+   * @return the response of the API, containing a status for each of the commits
+   * @throws CommitValidationException if the API could not be reached or its response processed
+   */
+  ValidationResponse validate(Project.NameKey project, List<Commit> commits)
+      throws CommitValidationException {
+    try {
+      return validateAsync(project, commits).get();
+    } catch (ExecutionException e) {
+      throw toCommitValidationException(e.getCause());
+    } catch (InterruptedException e) {
+      logger.atSevere().withCause(e).log("%s", e.getMessage());
+      Thread.currentThread().interrupt();
+      throw new CommitValidationException(
+          "Verification of commit has been interrupted",
+          new CommitValidationMessage(e.getMessage(), true),
+          e);
+    }
+  }
+
+  /**
+   * Asynchronous variant of {@link #validate(Project.NameKey, List)}, which does not block the
+   * calling thread while the ECA API is being called.
+   *
+   * @param project the project the commits belong to
+   * @param commits the request representation of the commits to validate
+   * @return the future response, completed exceptionally if the validation failed
+   */
+  CompletableFuture<ValidationResponse> validateAsync(
+      Project.NameKey project, List<Commit> commits) {
+    Map<String, CommitStatus> cached = new LinkedHashMap<>();
+    List<Commit> uncached = new ArrayList<>(commits.size());
+    for (Commit c : commits) {
+      identityCache.seen(project, c);
+      Optional<CommitStatus> status = identityCache.lookup(project, c);
+      metrics.recordCacheLookup(EcaIdentityCache.CACHE_NAME, status.isPresent());
+      if (status.isPresent()) {
+        cached.put(c.hash(), status.get());
+      } else {
+        uncached.add(c);
+      }
+    }
+    if (cached.isEmpty()) {
+      return revalidate(project, commits);
+    }
+    logger.atFine().log(
+        "Resolved %d of %d commits from cached identity verdicts", cached.size(), commits.size());
+    if (uncached.isEmpty()) {
+      return CompletableFuture.completedFuture(
+          merge(cached, identityCache.isTracked(project), Instant.now().toString()));
+    }
+    return inFlight
+        .validate(project, uncached, toSend -> requestValidation(project, toSend))
+        .thenApply(
+            response -> {
+              identityCache.record(project, uncached, response);
+              Map<String, CommitStatus> statuses = new LinkedHashMap<>(cached);
+              statuses.putAll(response.commits());
+              return merge(statuses, response.trackedProject(), response.time());
+            });
+  }
+
+  /**
+   * Validates the commits with the ECA API, ignoring the cached verdicts of their identities, and
+   * records the new verdicts.
+   *
+   * @param project the project the commits belong to
+   * @param commits the request representation of the commits to validate
+   * @return the future response, completed exceptionally if the validation failed
+   */
+  CompletableFuture<ValidationResponse> revalidate(Project.NameKey project, List<Commit> commits) {
+    return inFlight
+        .validate(project, commits, toSend -> requestValidation(project, toSend))
+        .thenApply(
+            response -> {
+              identityCache.record(project, commits, response);
+              return response;
+            });
+  }
+
+  static ValidationResponse merge(
+      Map<String, CommitStatus> statuses, boolean tracked, String time) {
+    int errorCount = statuses.values().stream().mapToInt(s -> s.errors().size()).sum();
+    return ValidationResponse.builder()
+        .passed(errorCount == 0)
+        .errorCount(errorCount)
+        .time(time)
+        .commits(statuses)
+        .trackedProject(tracked)
+        .build();
+  }
 
+  private CompletableFuture<ValidationResponse> requestValidation(
+      Project.NameKey project, List<Commit> commits) {
     // create the request container
     ValidationRequest.Builder req = ValidationRequest.builder();
     req.repoUrl(project.toString());
     req.provider("gerrit");
     req.strictMode(true);
-    req.commits(Collections.singletonList(getRequestCommit(commit, authorIdent, committerIdent)));
+    req.commits(commits);
 
-    // send the request and await the response from the API
+    // send the request, the response is processed when the backend answers
     ValidationRequest requestActual = req.build();
     logger.atFine().log("Request object: %s", requestActual);
 
-    try {
-      int apiTimeout =
-          pluginCfgFactory
-              .getFromProjectConfigWithInheritance(project, pluginName)
-              .getInt("apiTimeout", DEFAULT_API_TIMEOUT_SECS);
-
-      APIService apiService =
-          retrofitFactory.newService(APIService.BASE_URL, apiTimeout, APIService.class);
-
-      CompletableFuture<Response<ValidationResponse>> futureResponse =
-          apiService.validate(requestActual);
-      Response<ValidationResponse> rawResponse = futureResponse.get();
-      ValidationResponse response;
-      // handle error responses (okhttp doesn't assume error types)
-      if (rawResponse.isSuccessful()) {
-        response = rawResponse.body();
-      } else {
-        // auto close the response resources after fetching
-        try (ResponseBody err = futureResponse.get().errorBody();
-            BufferedSource src = err.source()) {
-          response = this.responseAdapter.fromJson(src);
-        } catch (JsonEncodingException e) {
-          logger.atSevere().withCause(e).log("%s", e.getMessage());
-          throw new CommitValidationException(
-              "An error happened while retrieving validation response, please contact the administrator if this error persists",
-              e);
-        }
-      }
-      logger.atFine().log("Response object: %s", response);
-      return response;
-    } catch (IOException | ExecutionException e) {
-      logger.atSevere().withCause(e).log("%s", e.getMessage());
-      throw new CommitValidationException(
-          "An error happened while checking commit",
-          new CommitValidationMessage(e.getMessage(), true),
-          e);
-    } catch (InterruptedException e) {
-      logger.atSevere().withCause(e).log("%s", e.getMessage());
-      Thread.currentThread().interrupt();
-      throw new CommitValidationException(
-          "Verification of commit has been interrupted",
-          new CommitValidationMessage(e.getMessage(), true),
-          e);
-    } catch (NoSuchProjectException e) {
-      throw new CommitValidationException(
-          "No such project",
-          new CommitValidationMessage("Cannot find project " + project, true),
-          e);
+    Optional<EcaProjectConfig> cfg = projectConfigs.get(project);
+    if (!cfg.isPresent()) {
+      return EcaBackend.failedFuture(
+          new CommitValidationException(
+              "No such project",
+              new CommitValidationMessage("Cannot find project " + project, true)));
     }
+
+    metrics.recordCommitsPerRequest(commits.size());
+    return backend.validate(requestActual, cfg.get().apiTimeout());
   }
 
   /**
-   * Creates request representation of the commit, containing information about the current commit
-   * and the users associated with it.
+   * Returns the response to use for a commit while the circuit protecting the ECA API is open,
+   * according to the outage policy of the project.
    *
-   * @param src the commit associated with this request
-   * @param author the author of the commit
-   * @param committer the committer for this request
-   * @return a Commit object to be posted to the ECA validation service.
+   * @param project the project the commit belongs to
+   * @param commit the request representation of the commit
+   * @return the degraded response, or empty if the commit must be rejected
    */
-  private static Commit getRequestCommit(RevCommit src, PersonIdent author, PersonIdent committer) {
-    // load commit object with information contained in the commit
-    Commit.Builder c = Commit.builder();
-    c.subject(src.getShortMessage());
-    c.hash(src.name());
-    c.body(src.getFullMessage());
-    c.head(true);
-
-    // get the parent commits, and retrieve their hashes
-    RevCommit[] parents = src.getParents();
-    List<String> parentHashes = new ArrayList<>(parents.length);
-    for (RevCommit parent : parents) {
-      parentHashes.add(parent.name());
+  Optional<ValidationResponse> degradedResponse(Project.NameKey project, Commit commit) {
+    Optional<EcaProjectConfig> cfg = projectConfigs.get(project);
+    if (!cfg.isPresent()) {
+      return Optional.empty();
     }
-    c.parents(parentHashes);
-
-    // convert the commit users to objects to be passed to ECA service
-    GitUser.Builder authorGit = GitUser.builder();
-    authorGit.mail(author.getEmailAddress());
-    authorGit.name(author.getName());
-    GitUser.Builder committerGit = GitUser.builder();
-    committerGit.mail(committer.getEmailAddress());
-    committerGit.name(committer.getName());
-
-    c.author(authorGit.build());
-    c.committer(committerGit.build());
-    return c.build();
+    EcaCircuitBreaker.OutagePolicy policy = cfg.get().outagePolicy();
+
+    Optional<CommitStatus> status;
+    switch (policy) {
+      case FAIL_OPEN:
+        CommitStatusMessage warning =
+            CommitStatusMessage.create(
+                0,
+                "The ECA service is unavailable, the commit was accepted without ECA validation.");
+        status =
+            Optional.of(
+                CommitStatus.create(
+                    ImmutableList.of(warning), ImmutableList.of(warning), ImmutableList.of()));
+        break;
+      case LAST_KNOWN:
+        status = identityCache.lookupLastKnown(project, commit);
+        break;
+      case FAIL_CLOSED:
+      default:
+        status = Optional.empty();
+        break;
+    }
+    logger.atWarning().log(
+        "ECA service unavailable, applying %s policy to commit %s of project %s",
+        policy, commit.hash(), project);
+    return status.map(
+        s ->
+            merge(
+                Collections.singletonMap(commit.hash(), s),
+                identityCache.isTracked(project),
+                Instant.now().toString()));
+  }
+
+  /**
+   * Converts the cause of a failed asynchronous validation into the exception reported to the
+   * user.
+   */
+  static CommitValidationException toCommitValidationException(Throwable cause) {
+    if (cause instanceof CompletionException && cause.getCause() != null) {
+      cause = cause.getCause();
+    }
+    if (cause instanceof CommitValidationException) {
+      return (CommitValidationException) cause;
+    }
+    logger.atSevere().withCause(cause).log("%s", cause.getMessage());
+    return new CommitValidationException(
+        "An error happened while checking commit",
+        new CommitValidationMessage(String.valueOf(cause.getMessage()), true),
+        cause);
+  }
+
+  /**
+   * Creates request representation of the commit with its full message, see {@link
+   * CommitPayload#toRequestCommit}.
+   */
+  static Commit getRequestCommit(
+      RevCommit src, PersonIdent author, PersonIdent committer, boolean head) {
+    return CommitPayload.FULL.toRequestCommit(src, author, committer, head);
+  }
+
+  /**
+   * Returns the part of the commit messages sent to the ECA API for the commits of a project.
+   *
+   * @param project the project the commits belong to
+   * @return the payload configured for the project, or the full messages if it cannot be read
+   */
+  CommitPayload payload(Project.NameKey project) {
+    return projectConfigs.get(project).map(EcaProjectConfig::payload).orElse(CommitPayload.FULL);
   }
 }
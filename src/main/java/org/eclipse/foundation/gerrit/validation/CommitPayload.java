@@ -0,0 +1,134 @@
+/**
+ * ***************************************************************************** Copyright (c) 2025
+ * Eclipse Foundation and others. All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0 which accompanies this
+ * distribution, and is available at http://www.eclipse.org/legal/epl-v10.html
+ * *****************************************************************************
+ */
+package org.eclipse.foundation.gerrit.validation;
+
+import java.nio.charset.Charset;
+import java.nio.charset.IllegalCharsetNameException;
+import java.nio.charset.StandardCharsets;
+import java.nio.charset.UnsupportedCharsetException;
+import java.util.ArrayList;
+import java.util.List;
+import org.eclipse.jgit.lib.PersonIdent;
+import org.eclipse.jgit.revwalk.FooterLine;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.util.RawParseUtils;
+
+/**
+ * Which part of the commit messages is sent to the ECA API, configured with {@code payloadProfile}
+ * and {@code maxBodyBytes} in the project configuration.
+ *
+ * <p>The message is decoded from the raw commit buffer only as far as the profile needs, so that a
+ * huge generated message is neither copied into a {@code String} nor uploaded in full.
+ */
+final class CommitPayload {
+  public enum Profile {
+    /** The full commit message. */
+    FULL,
+    /** The subject line only. */
+    SUBJECT_ONLY,
+    /** The subject line followed by the footer lines, e.g. {@code Signed-off-by}. */
+    TRAILERS_ONLY
+  }
+
+  static final CommitPayload FULL = new CommitPayload(Profile.FULL, 0);
+
+  private final Profile profile;
+  private final int maxBodyBytes;
+
+  /**
+   * @param profile the part of the commit messages to send
+   * @param maxBodyBytes the maximum size of a full message body, {@code 0} for no limit. Longer
+   *     messages are cut, and their footer lines appended so that they are still sent.
+   */
+  CommitPayload(Profile profile, int maxBodyBytes) {
+    this.profile = profile;
+    this.maxBodyBytes = Math.max(0, maxBodyBytes);
+  }
+
+  /**
+   * Creates request representation of the commit, containing information about the current commit
+   * and the users associated with it.
+   *
+   * @param src the commit associated with this request
+   * @param author the author of the commit
+   * @param committer the committer for this request
+   * @param head whether the commit is the tip of the validated commits
+   * @return a Commit object to be posted to the ECA validation service.
+   */
+  Commit toRequestCommit(RevCommit src, PersonIdent author, PersonIdent committer, boolean head) {
+    // load commit object with information contained in the commit
+    Commit.Builder c = Commit.builder();
+    String subject = src.getShortMessage();
+    c.subject(subject);
+    c.hash(src.name());
+    c.body(body(src, subject));
+    c.head(head);
+
+    // get the parent commits, and retrieve their hashes
+    RevCommit[] parents = src.getParents();
+    List<String> parentHashes = new ArrayList<>(parents.length);
+    for (RevCommit parent : parents) {
+      parentHashes.add(parent.name());
+    }
+    c.parents(parentHashes);
+
+    // convert the commit users to objects to be passed to ECA service
+    GitUser.Builder authorGit = GitUser.builder();
+    authorGit.mail(author.getEmailAddress());
+    authorGit.name(author.getName());
+    GitUser.Builder committerGit = GitUser.builder();
+    committerGit.mail(committer.getEmailAddress());
+    committerGit.name(committer.getName());
+
+    c.author(authorGit.build());
+    c.committer(committerGit.build());
+    return c.build();
+  }
+
+  private String body(RevCommit src, String subject) {
+    switch (profile) {
+      case SUBJECT_ONLY:
+        return subject;
+      case TRAILERS_ONLY:
+        return withTrailers(new StringBuilder(subject), src);
+      case FULL:
+      default:
+        byte[] raw = src.getRawBuffer();
+        int start = RawParseUtils.commitMessage(raw, 0);
+        if (start < 0) {
+          return "";
+        }
+        if (maxBodyBytes == 0 || raw.length - start <= maxBodyBytes) {
+          return src.getFullMessage();
+        }
+        return withTrailers(
+            new StringBuilder(
+                RawParseUtils.decode(encoding(src), raw, start, start + maxBodyBytes)),
+            src);
+    }
+  }
+
+  private static String withTrailers(StringBuilder body, RevCommit src) {
+    List<FooterLine> footers = src.getFooterLines();
+    if (!footers.isEmpty()) {
+      body.append("\n\n");
+      for (FooterLine footer : footers) {
+        body.append(footer.getKey()).append(": ").append(footer.getValue()).append('\n');
+      }
+    }
+    return body.toString();
+  }
+
+  private static Charset encoding(RevCommit src) {
+    try {
+      return src.getEncoding();
+    } catch (IllegalCharsetNameException | UnsupportedCharsetException e) {
+      return StandardCharsets.UTF_8;
+    }
+  }
+}
@@ -32,6 +32,13 @@ public abstract class CommitStatus {
     return new AutoValue_CommitStatus.MoshiJsonAdapter(moshi);
   }
 
+  static CommitStatus create(
+      List<CommitStatusMessage> messages,
+      List<CommitStatusMessage> warnings,
+      List<CommitStatusMessage> errors) {
+    return new AutoValue_CommitStatus(messages, warnings, errors);
+  }
+
   @Override
   public String toString() {
     StringBuilder builder = new StringBuilder();
@@ -60,6 +67,10 @@ public abstract class CommitStatus {
       return new AutoValue_CommitStatus_CommitStatusMessage.MoshiJsonAdapter(moshi);
     }
 
+    static CommitStatusMessage create(int code, String message) {
+      return new AutoValue_CommitStatus_CommitStatusMessage(code, message);
+    }
+
     @Override
     public String toString() {
       StringBuilder builder = new StringBuilder();
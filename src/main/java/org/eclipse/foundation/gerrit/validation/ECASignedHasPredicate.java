@@ -12,14 +12,14 @@ package org.eclipse.foundation.gerrit.validation;
 import com.google.gerrit.extensions.annotations.PluginName;
 import com.google.gerrit.server.query.change.ChangeData;
 import com.google.gerrit.server.query.change.SubmitRequirementPredicate;
-import com.google.gerrit.server.rules.SubmitRule;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 
 /**
  * A predicate that checks if a signed Eclipse Contributor Agreement. This predicate wraps the
- * existing {@link ECASignedSubmitRequirement} (that implements the {@link SubmitRule}) to perform
- * the logic.
+ * existing {@link ECASignedSubmitRequirement} to perform the logic, which answers from the verdict
+ * stored when the patch set was uploaded and is satisfied for the changes of the projects where
+ * the validation is not enabled.
  */
 @Singleton
 class ECASignedHasPredicate extends SubmitRequirementPredicate {
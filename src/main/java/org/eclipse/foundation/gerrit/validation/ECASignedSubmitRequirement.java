@@ -11,69 +11,352 @@ package org.eclipse.foundation.gerrit.validation;
 
 import static java.util.Objects.requireNonNull;
 
+import com.google.common.collect.Lists;
 import com.google.common.flogger.FluentLogger;
 import com.google.gerrit.entities.Change;
+import com.google.gerrit.entities.PatchSet;
 import com.google.gerrit.entities.Project;
 import com.google.gerrit.extensions.annotations.PluginName;
-import com.google.gerrit.server.config.PluginConfigFactory;
+import com.google.gerrit.server.IdentifiedUser;
+import com.google.gerrit.server.cache.PerThreadCache;
 import com.google.gerrit.server.git.GitRepositoryManager;
 import com.google.gerrit.server.git.validators.CommitValidationException;
 import com.google.gerrit.server.query.change.ChangeData;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.PersonIdent;
 import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.FooterLine;
 import org.eclipse.jgit.revwalk.RevCommit;
 import org.eclipse.jgit.revwalk.RevWalk;
 
 @Singleton
 public class ECASignedSubmitRequirement extends BaseEclipseCommitValidator {
   private final GitRepositoryManager repoManager;
+  private final EcaVerdictStore verdictStore;
+  private final EcaExclusions.Checker exclusionChecker;
+  private final IdentifiedUser.GenericFactory userFactory;
+  private final EcaVerdictPrecomputer precomputer;
+  private final EcaDeferredValidator deferredValidator;
   private static final FluentLogger logger = FluentLogger.forEnclosingClass();
+  static final String REQUEST_CACHE_NAME = "request";
+  private static final PerThreadCache.Key<RequestVerdicts> REQUEST_VERDICTS =
+      PerThreadCache.Key.create(RequestVerdicts.class);
 
   @Inject
   public ECASignedSubmitRequirement(
       GitRepositoryManager repoManager,
-      PluginConfigFactory pluginConfigFactory,
-      @PluginName String pluginName) {
-    super(pluginConfigFactory, pluginName);
+      EcaProjectConfig.Factory projectConfigs,
+      @PluginName String pluginName,
+      EcaBackend backend,
+      EcaIdentityCache identityCache,
+      InFlightValidations inFlight,
+      EcaMetrics metrics,
+      EcaVerdictStore verdictStore,
+      EcaExclusions.Checker exclusionChecker,
+      IdentifiedUser.GenericFactory userFactory,
+      EcaVerdictPrecomputer precomputer,
+      EcaDeferredValidator deferredValidator) {
+    super(projectConfigs, pluginName, backend, identityCache, inFlight, metrics);
     this.repoManager = repoManager;
+    this.verdictStore = verdictStore;
+    this.exclusionChecker = exclusionChecker;
+    this.userFactory = userFactory;
+    this.precomputer = precomputer;
+    this.deferredValidator = deferredValidator;
   }
 
   public boolean evaluate(ChangeData cd) {
     requireNonNull(cd, "changeData");
-    Change change = cd.change();
-    logger.atWarning().log(
-        "Evaluate ECA signed for change %s in project %s",
-        change.getId().get(), change.getProject().get());
-
-    Project.NameKey project = cd.project();
-    int changeId = cd.getId().get();
-    if (change.isClosed()) {
+    return evaluate(Collections.singletonList(cd), !precomputer.isEnabled())
+        .getOrDefault(cd.getId(), false);
+  }
+
+  /**
+   * Evaluates the ECA requirement of several changes, e.g. the changes of a query result. The
+   * current patch sets without a stored verdict are validated with as few requests as possible, one
+   * per project and chunk of {@code maxBatchSize} commits.
+   *
+   * <p>The verdicts are memoized for the rest of the current request, if any, so that the submit
+   * requirement, the {@code has:signed_eca-validation} queries and the change details of the same
+   * request evaluate each patch set once.
+   *
+   * @param changes the changes to evaluate
+   * @param compute whether the patch sets without a stored verdict are validated right away, rather
+   *     than reported as pending while their verdict is computed in the background
+   * @return whether the requirement is satisfied, for each change
+   */
+  Map<Change.Id, Boolean> evaluate(Collection<ChangeData> changes, boolean compute) {
+    Map<Change.Id, Boolean> results = new HashMap<>();
+    Optional<Map<PatchSet.Id, Boolean>> memo = requestVerdicts();
+    Map<PatchSet.Id, Change.Id> evaluated = new LinkedHashMap<>();
+    Map<Project.NameKey, List<PendingChange>> byProject = new LinkedHashMap<>();
+    for (ChangeData cd : changes) {
+      Change change = cd.change();
       logger.atFine().log(
-          "Project '%s': change #%d is closed therefore ECA sign requirement is skipped.",
-          project, changeId);
-      return true;
+          "Evaluate ECA signed for change %s in project %s",
+          change.getId().get(), change.getProject().get());
+
+      Project.NameKey project = cd.project();
+      if (change.isClosed()) {
+        logger.atFine().log(
+            "Project '%s': change #%d is closed therefore ECA sign requirement is skipped.",
+            project, cd.getId().get());
+        results.put(cd.getId(), true);
+        continue;
+      }
+
+      metrics.recordEvaluation(EcaMetrics.Caller.SUBMIT_REQUIREMENT);
+      PatchSet ps = cd.currentPatchSet();
+      if (memo.isPresent()) {
+        Boolean memoized = memo.get().get(ps.id());
+        metrics.recordCacheLookup(REQUEST_CACHE_NAME, memoized != null);
+        if (memoized != null) {
+          results.put(cd.getId(), memoized);
+          continue;
+        }
+      }
+      evaluated.put(ps.id(), cd.getId());
+      ObjectId commitId = ps.commitId();
+      Optional<EcaVerdict> stored = verdictStore.get(project, commitId);
+      metrics.recordCacheLookup(EcaVerdictStore.CACHE_NAME, stored.isPresent());
+      byProject
+          .computeIfAbsent(project, p -> new ArrayList<>())
+          .add(new PendingChange(cd, commitId, stored));
+    }
+
+    for (Map.Entry<Project.NameKey, List<PendingChange>> e : byProject.entrySet()) {
+      evaluate(e.getKey(), e.getValue(), results, compute);
+    }
+    memo.ifPresent(m -> evaluated.forEach((ps, id) -> m.put(ps, results.get(id))));
+    return results;
+  }
+
+  /** Returns the verdicts memoized during the current request, if it has a per-thread cache. */
+  private static Optional<Map<PatchSet.Id, Boolean>> requestVerdicts() {
+    PerThreadCache cache = PerThreadCache.get();
+    return cache != null
+        ? Optional.of(cache.get(REQUEST_VERDICTS, RequestVerdicts::new).verdicts)
+        : Optional.empty();
+  }
+
+  /** The verdicts of the patch sets evaluated during a request. */
+  private static class RequestVerdicts {
+    final Map<PatchSet.Id, Boolean> verdicts = new HashMap<>();
+  }
+
+  /** An open change whose verdict is being evaluated. */
+  private static class PendingChange {
+    final ChangeData cd;
+    final ObjectId commitId;
+    final Optional<EcaVerdict> stored;
+
+    PendingChange(ChangeData cd, ObjectId commitId, Optional<EcaVerdict> stored) {
+      this.cd = cd;
+      this.commitId = commitId;
+      this.stored = stored;
+    }
+  }
+
+  private void evaluate(
+      Project.NameKey project,
+      List<PendingChange> pending,
+      Map<Change.Id, Boolean> results,
+      boolean compute) {
+    Optional<EcaProjectConfig> cfg = projectConfigs.get(project);
+    if (!cfg.map(EcaProjectConfig::enabled).orElse(false)) {
+      logger.atFine().log("Plugin %s is not enabled for project %s", pluginName, project.get());
+      pending.forEach(p -> results.put(p.cd.getId(), true));
+      return;
+    }
+    EcaExclusions exclusions = cfg.get().exclusions();
+    List<PendingChange> unknown = new ArrayList<>(pending.size());
+    for (PendingChange p : pending) {
+      // a failing verdict is overridden by the exclusion rules added since
+      if (p.stored.isPresent() && (p.stored.get().satisfied() || exclusions.isEmpty())) {
+        results.put(p.cd.getId(), p.stored.get().satisfied());
+      } else {
+        unknown.add(p);
+      }
+    }
+    if (unknown.isEmpty()) {
+      return;
     }
 
+    // the commits to validate, with the changes of each
+    Map<ObjectId, List<Change.Id>> toValidate = new LinkedHashMap<>();
+    List<PendingChange> toParse = new ArrayList<>(unknown.size());
+    for (PendingChange p : unknown) {
+      if (!p.stored.isPresent()) {
+        if (deferredValidator.isPending(project, p.commitId)) {
+          // pushed with deferredValidation, the queued validation stores the verdict
+          logger.atFine().log(
+              "Project '%s': change #%d waits for its deferred ECA validation",
+              project, p.cd.getId().get());
+          results.put(p.cd.getId(), false);
+        } else {
+          toParse.add(p);
+        }
+        continue;
+      }
+      // only the exclusion rules are evaluated, from the commit data the change may already have
+      ChangeData cd = p.cd;
+      boolean excluded =
+          isExcluded(exclusions, cd, cd::commitFooters, cd.getAuthor(), cd.getCommitter());
+      results.put(cd.getId(), excluded || p.stored.get().satisfied());
+    }
+    if (!compute) {
+      List<PendingChange> onDemand = new ArrayList<>(toParse.size());
+      for (PendingChange p : toParse) {
+        ChangeData cd = p.cd;
+        if (!precomputer.isPending(project, cd.getId())) {
+          // e.g. created before the plugin, or given up during an outage of the ECA API
+          onDemand.add(p);
+        } else if (isExcluded(
+            exclusions, cd, cd::commitFooters, cd.getAuthor(), cd.getCommitter())) {
+          results.put(cd.getId(), true);
+        } else {
+          logger.atFine().log(
+              "Project '%s': change #%d waits for its ECA verdict", project, cd.getId().get());
+          results.put(cd.getId(), false);
+        }
+      }
+      toParse = onDemand;
+    }
+    if (toParse.isEmpty()) {
+      return;
+    }
+
+    // the payload needs the parents and the raw message of the commits
+    List<Commit> commits = new ArrayList<>(toParse.size());
+    CommitPayload payload = payload(project);
+    // a single handle for all the changes of the project being evaluated together
     try (Repository repo = repoManager.openRepository(project);
         RevWalk rw = new RevWalk(repo)) {
-      RevCommit commit = rw.lookupCommit(cd.currentPatchSet().commitId());
-      rw.parseBody(commit);
+      for (PendingChange p : toParse) {
+        ChangeData cd = p.cd;
+        RevCommit commit;
+        try {
+          commit = rw.parseCommit(p.commitId);
+        } catch (IOException e) {
+          recordFailure(e, project, cd.getId(), results);
+          continue;
+        }
 
-      ValidationResponse response =
-          validate(change.getProject(), cd.getAuthor(), cd.getCommitter(), commit);
+        PersonIdent author = commit.getAuthorIdent();
+        PersonIdent committer = commit.getCommitterIdent();
+        if (isExcluded(exclusions, cd, commit::getFooterLines, author, committer)) {
+          results.put(cd.getId(), true);
+          continue;
+        }
 
-      if (response.errorCount() > 0 && response.trackedProject()) {
-        return false;
+        // the patch set was not uploaded through the commit validation listener
+        List<Change.Id> ids = toValidate.get(p.commitId);
+        if (ids == null) {
+          ids = new ArrayList<>(1);
+          toValidate.put(p.commitId, ids);
+          commits.add(payload.toRequestCommit(commit, author, committer, true));
+        }
+        ids.add(cd.getId());
       }
-    } catch (IOException | CommitValidationException e) {
-      logger.atSevere().withCause(e).log(
-          "Could not evaluate ECA Signed Submit Requirement for Project '%s': change #%d.",
-          project, changeId);
-      return false;
+    } catch (IOException e) {
+      for (PendingChange p : toParse) {
+        if (!results.containsKey(p.cd.getId())) {
+          recordFailure(e, project, p.cd.getId(), results);
+        }
+      }
+      return;
+    }
+
+    for (List<Commit> chunk : Lists.partition(commits, Math.max(1, cfg.get().maxBatchSize()))) {
+      validate(project, chunk, toValidate, results);
+    }
+  }
+
+  /** Validates a chunk of commits with a single request and stores their verdicts. */
+  private void validate(
+      Project.NameKey project,
+      List<Commit> chunk,
+      Map<ObjectId, List<Change.Id>> changesByCommit,
+      Map<Change.Id, Boolean> results) {
+    ValidationResponse response;
+    try {
+      response = validate(project, chunk);
+    } catch (CommitValidationException e) {
+      for (Commit c : chunk) {
+        List<Change.Id> ids = changesByCommit.get(ObjectId.fromString(c.hash()));
+        if (EcaCircuitBreaker.isOpenCircuit(e)) {
+          boolean satisfied =
+              degradedResponse(project, c)
+                  .map(r -> EcaVerdict.fromResponse(r).satisfied())
+                  .orElse(false);
+          ids.forEach(id -> results.put(id, satisfied));
+        } else {
+          ids.forEach(id -> recordFailure(e, project, id, results));
+        }
+      }
+      return;
     }
 
+    for (Commit c : chunk) {
+      ObjectId commitId = ObjectId.fromString(c.hash());
+      List<Change.Id> ids = changesByCommit.get(commitId);
+      Optional<ValidationResponse> commitResponse = response.forCommit(c.hash());
+      if (!commitResponse.isPresent()) {
+        ids.forEach(
+            id ->
+                recordFailure(
+                    new IOException("No status for commit " + c.hash()), project, id, results));
+        continue;
+      }
+      metrics.recordOutcome(commitResponse.get());
+      EcaVerdict verdict = EcaVerdict.fromResponse(commitResponse.get());
+      verdictStore.put(project, commitId, verdict);
+      ids.forEach(id -> results.put(id, verdict.satisfied()));
+    }
+  }
+
+  private boolean isExcluded(
+      EcaExclusions exclusions,
+      ChangeData cd,
+      Supplier<List<FooterLine>> footers,
+      PersonIdent author,
+      PersonIdent committer) {
+    Optional<String> exclusion =
+        exclusionChecker.excludedBy(
+            exclusions,
+            footers,
+            author,
+            committer,
+            cd.change().getDest().branch(),
+            userFactory.create(cd.currentPatchSet().uploader()));
+    if (!exclusion.isPresent()) {
+      return false;
+    }
+    logger.atFine().log(
+        "Project '%s': change #%d is excluded from ECA validation by %s",
+        cd.project(), cd.getId().get(), exclusion.get());
+    metrics.recordExcluded();
     return true;
   }
+
+  private void recordFailure(
+      Exception e, Project.NameKey project, Change.Id changeId, Map<Change.Id, Boolean> results) {
+    metrics.recordError();
+    logger.atSevere().withCause(e).log(
+        "Could not evaluate ECA Signed Submit Requirement for Project '%s': change #%d.",
+        project, changeId.get());
+    results.put(changeId, false);
+  }
 }
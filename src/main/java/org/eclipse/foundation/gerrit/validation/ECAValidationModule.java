@@ -9,7 +9,9 @@
  */
 package org.eclipse.foundation.gerrit.validation;
 
+import com.google.gerrit.extensions.events.RevisionCreatedListener;
 import com.google.gerrit.extensions.registration.DynamicSet;
+import com.google.gerrit.lifecycle.LifecycleModule;
 import com.google.gerrit.server.git.validators.CommitValidationListener;
 import com.google.inject.AbstractModule;
 
@@ -18,6 +20,22 @@ public class ECAValidationModule extends AbstractModule {
   protected void configure() {
     DynamicSet.bind(binder(), CommitValidationListener.class)
         .to(EclipseCommitValidationListener.class);
+    DynamicSet.bind(binder(), RevisionCreatedListener.class).to(EcaVerdictPrecomputer.class);
     install(new ECASignedHasOperand.ECASignedHasOperandModule());
+    install(new EcaIdentityCache.EcaIdentityCacheModule());
+    install(new EcaVerdictStore.EcaVerdictStoreModule());
+    install(new EcaSharedStore.EcaSharedStoreModule());
+    install(new EcaBackend.EcaBackendModule());
+    install(
+        new LifecycleModule() {
+          @Override
+          protected void configure() {
+            listener().to(RetrofitFactory.class);
+            listener().to(EcaPrewarmer.class);
+            listener().to(EcaAgreementUpdater.class);
+            listener().to(EcaVerdictPrecomputer.class);
+            listener().to(EcaDeferredValidator.class);
+          }
+        });
   }
 }
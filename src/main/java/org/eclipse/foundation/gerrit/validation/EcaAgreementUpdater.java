@@ -0,0 +1,138 @@
+/**
+ * ***************************************************************************** Copyright (c) 2025
+ * Eclipse Foundation and others. All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0 which accompanies this
+ * distribution, and is available at http://www.eclipse.org/legal/epl-v10.html
+ * *****************************************************************************
+ */
+package org.eclipse.foundation.gerrit.validation;
+
+import com.google.common.flogger.FluentLogger;
+import com.google.gerrit.entities.Project;
+import com.google.gerrit.extensions.events.LifecycleListener;
+import com.google.gerrit.server.git.WorkQueue;
+import com.google.gerrit.server.query.change.ChangeData;
+import com.google.gerrit.server.query.change.ChangeQueryBuilder;
+import com.google.gerrit.server.query.change.ChangeQueryProcessor;
+import com.google.gerrit.server.util.ManualRequestContext;
+import com.google.gerrit.server.util.OneOffRequestContext;
+import com.google.inject.Inject;
+import com.google.inject.Provider;
+import com.google.inject.Singleton;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * Applies the agreement changes notified by the ECA service: the cached verdicts of the identity
+ * are evicted right away, and the open changes authored or committed by that identity have their
+ * stale verdicts evicted and are validated again in the background, so that they no longer wait
+ * for their verdicts to expire. A signature only evicts the failing verdicts of the current patch
+ * sets, while a revocation evicts the verdicts of all their patch sets.
+ */
+@Singleton
+class EcaAgreementUpdater implements LifecycleListener {
+  private static final FluentLogger logger = FluentLogger.forEnclosingClass();
+
+  private static final int BATCH_SIZE = 100;
+
+  private final WorkQueue workQueue;
+  private final EcaIdentityCache identityCache;
+  private final EcaVerdictStore verdictStore;
+  private final EcaRevalidator revalidator;
+  private final Provider<ChangeQueryProcessor> queryProcessor;
+  private final Provider<ChangeQueryBuilder> queryBuilder;
+  private final OneOffRequestContext requestContext;
+
+  private ScheduledExecutorService executor;
+
+  @Inject
+  EcaAgreementUpdater(
+      WorkQueue workQueue,
+      EcaIdentityCache identityCache,
+      EcaVerdictStore verdictStore,
+      EcaRevalidator revalidator,
+      Provider<ChangeQueryProcessor> queryProcessor,
+      Provider<ChangeQueryBuilder> queryBuilder,
+      OneOffRequestContext requestContext) {
+    this.workQueue = workQueue;
+    this.identityCache = identityCache;
+    this.verdictStore = verdictStore;
+    this.revalidator = revalidator;
+    this.queryProcessor = queryProcessor;
+    this.queryBuilder = queryBuilder;
+    this.requestContext = requestContext;
+  }
+
+  @Override
+  public synchronized void start() {
+    executor = workQueue.createQueue(1, "ECA-Agreements");
+  }
+
+  @Override
+  public synchronized void stop() {
+    if (executor != null) {
+      executor.shutdownNow();
+      executor = null;
+    }
+  }
+
+  /**
+   * Evicts the cached verdicts of an identity and schedules the validation of its open changes.
+   *
+   * @param event the agreement change
+   */
+  synchronized void update(AgreementEvent event) {
+    identityCache.evict(event.email());
+    logger.atInfo().log("ECA of %s was %s", event.email(), event.signed() ? "signed" : "revoked");
+    if (executor != null) {
+      executor.submit(() -> revalidate(event.email(), event.signed()));
+    }
+  }
+
+  private void revalidate(String email, boolean signed) {
+    try (ManualRequestContext ctx = requestContext.open()) {
+      List<ChangeData> changes =
+          queryProcessor
+              .get()
+              .enforceVisibility(false)
+              .setNoLimit(true)
+              .query(
+                  queryBuilder
+                      .get()
+                      .parse(
+                          String.format(
+                              "status:open (author:\"%s\" OR committer:\"%s\")", email, email)))
+              .entities();
+      Map<Project.NameKey, List<ChangeData>> byProject = new LinkedHashMap<>();
+      for (ChangeData cd : changes) {
+        // not reused in the meantime, nor if the validation below fails
+        if (signed) {
+          verdictStore.evictFailing(cd.project(), cd.currentPatchSet().commitId());
+        } else {
+          cd.patchSets().forEach(ps -> verdictStore.evict(cd.project(), ps.commitId()));
+        }
+        byProject.computeIfAbsent(cd.project(), p -> new ArrayList<>()).add(cd);
+      }
+      int reindexed = 0;
+      for (Map.Entry<Project.NameKey, List<ChangeData>> e : byProject.entrySet()) {
+        reindexed +=
+            revalidator
+                .revalidate(e.getKey(), e.getValue(), BATCH_SIZE, Optional.empty(), r -> {})
+                .reindexed();
+      }
+      logger.atInfo().log(
+          "Validated %d open changes of %s, %d re-indexed", changes.size(), email, reindexed);
+    } catch (Exception e) {
+      logger.atWarning().withCause(e).log("Cannot validate the open changes of %s", email);
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "ECA agreement updates";
+  }
+}
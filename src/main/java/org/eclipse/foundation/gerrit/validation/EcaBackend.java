@@ -0,0 +1,87 @@
+/**
+ * ***************************************************************************** Copyright (c) 2025
+ * Eclipse Foundation and others. All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0 which accompanies this
+ * distribution, and is available at http://www.eclipse.org/legal/epl-v10.html
+ * *****************************************************************************
+ */
+package org.eclipse.foundation.gerrit.validation;
+
+import com.google.common.base.Enums;
+import com.google.gerrit.extensions.annotations.PluginName;
+import com.google.gerrit.server.config.GerritServerConfig;
+import com.google.gerrit.server.config.SitePaths;
+import com.google.inject.AbstractModule;
+import com.google.inject.Provides;
+import com.google.inject.Singleton;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import okhttp3.HttpUrl;
+import org.eclipse.jgit.lib.Config;
+
+/**
+ * Backend answering the validation requests of the plugin, the ECA API unless an offline backend
+ * is configured with {@code backend}.
+ */
+interface EcaBackend {
+  /**
+   * Validates the commits of a request.
+   *
+   * @param request the validation request
+   * @param timeoutSecs the maximum time the validation may take, in seconds
+   * @return the future response, completed exceptionally if the validation failed
+   */
+  CompletableFuture<ValidationResponse> validate(ValidationRequest request, int timeoutSecs);
+
+  /**
+   * Returns a future already completed with a failure, as {@code CompletableFuture.failedFuture}
+   * does from Java 9 on.
+   *
+   * @param failure the failure of the future
+   * @return the failed future
+   */
+  static <T> CompletableFuture<T> failedFuture(Throwable failure) {
+    CompletableFuture<T> future = new CompletableFuture<>();
+    future.completeExceptionally(failure);
+    return future;
+  }
+
+  enum Type {
+    API,
+    ALLOW_LIST
+  }
+
+  class EcaBackendModule extends AbstractModule {
+    @Provides
+    @Singleton
+    EcaBackend provideBackend(
+        @GerritServerConfig Config cfg,
+        @PluginName String pluginName,
+        SitePaths site,
+        RetrofitFactory retrofitFactory,
+        EcaCircuitBreaker circuitBreaker) {
+      String value = cfg.getString("plugin", pluginName, "backend");
+      Type type =
+          value == null
+              ? Type.API
+              : Enums.getIfPresent(Type.class, value.toUpperCase(Locale.US)).or(Type.API);
+      if (type == Type.ALLOW_LIST) {
+        String file = cfg.getString("plugin", pluginName, "allowListFile");
+        if (file == null) {
+          throw new IllegalStateException("allowListFile is required by the ALLOW_LIST backend");
+        }
+        return new AllowListEcaBackend(site.resolve(file));
+      }
+
+      String apiUrl = cfg.getString("plugin", pluginName, "apiUrl");
+      String apiPath = cfg.getString("plugin", pluginName, "apiPath");
+      return new ApiEcaBackend(
+          retrofitFactory,
+          circuitBreaker,
+          apiUrl != null ? HttpUrl.get(apiUrl) : APIService.DEFAULT_BASE_URL,
+          apiPath != null ? apiPath : APIService.DEFAULT_PATH,
+          Optional.ofNullable(cfg.getString("plugin", pluginName, "apiToken")));
+    }
+  }
+}
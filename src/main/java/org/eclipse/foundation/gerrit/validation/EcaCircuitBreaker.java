@@ -0,0 +1,144 @@
+/**
+ * ***************************************************************************** Copyright (c) 2025
+ * Eclipse Foundation and others. All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0 which accompanies this
+ * distribution, and is available at http://www.eclipse.org/legal/epl-v10.html
+ * *****************************************************************************
+ */
+package org.eclipse.foundation.gerrit.validation;
+
+import com.google.common.base.Throwables;
+import com.google.common.flogger.FluentLogger;
+import com.google.gerrit.extensions.annotations.PluginName;
+import com.google.gerrit.server.config.ConfigUtil;
+import com.google.gerrit.server.config.GerritServerConfig;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.jgit.lib.Config;
+
+/**
+ * Circuit breaker protecting the ECA API.
+ *
+ * <p>After {@code circuitBreakerFailureThreshold} consecutive failed requests the circuit opens and
+ * requests fail immediately with an {@link OpenCircuitException} instead of waiting for the API
+ * timeout. Once {@code circuitBreakerOpenDuration} has elapsed a single probe request is let
+ * through (half-open state): its success closes the circuit again, its failure re-opens it.
+ */
+@Singleton
+class EcaCircuitBreaker {
+  private static final FluentLogger logger = FluentLogger.forEnclosingClass();
+
+  private static final int DEFAULT_FAILURE_THRESHOLD = 5;
+  private static final long DEFAULT_OPEN_DURATION_SECS = 30;
+
+  enum State {
+    CLOSED,
+    OPEN,
+    HALF_OPEN
+  }
+
+  /** Thrown instead of calling the ECA API while the circuit is open. */
+  static class OpenCircuitException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    OpenCircuitException() {
+      super("The ECA service is currently unavailable");
+    }
+  }
+
+  /**
+   * What to do with the commits of a project while the circuit is open, configured with {@code
+   * outagePolicy} in the project configuration.
+   */
+  public enum OutagePolicy {
+    /** Reject the commits, as when the API cannot be reached. */
+    FAIL_CLOSED,
+    /** Accept the commits with a warning. */
+    FAIL_OPEN,
+    /** Use the last known verdict of the identities, even if expired, and reject otherwise. */
+    LAST_KNOWN
+  }
+
+  private final int failureThreshold;
+  private final long openDurationMillis;
+
+  private State state = State.CLOSED;
+  private int consecutiveFailures;
+  private long openedAt;
+
+  @Inject
+  EcaCircuitBreaker(@GerritServerConfig Config cfg, @PluginName String pluginName) {
+    this(
+        cfg.getInt(
+            "plugin", pluginName, "circuitBreakerFailureThreshold", DEFAULT_FAILURE_THRESHOLD),
+        ConfigUtil.getTimeUnit(
+            cfg,
+            "plugin",
+            pluginName,
+            "circuitBreakerOpenDuration",
+            DEFAULT_OPEN_DURATION_SECS,
+            TimeUnit.SECONDS));
+  }
+
+  EcaCircuitBreaker(int failureThreshold, long openDurationSecs) {
+    this.failureThreshold = failureThreshold;
+    this.openDurationMillis = TimeUnit.SECONDS.toMillis(openDurationSecs);
+  }
+
+  /**
+   * Whether a request to the API may be sent now. In the half-open state only the first caller is
+   * allowed, as a probe.
+   */
+  synchronized boolean tryAcquire() {
+    switch (state) {
+      case CLOSED:
+        return true;
+      case OPEN:
+        if (System.currentTimeMillis() - openedAt >= openDurationMillis) {
+          logger.atInfo().log("Probing the ECA service");
+          state = State.HALF_OPEN;
+          return true;
+        }
+        return false;
+      case HALF_OPEN:
+      default:
+        return false;
+    }
+  }
+
+  synchronized void onSuccess() {
+    if (state != State.CLOSED) {
+      logger.atInfo().log("ECA service is available again, closing circuit");
+    }
+    state = State.CLOSED;
+    consecutiveFailures = 0;
+  }
+
+  synchronized void onFailure() {
+    consecutiveFailures++;
+    if (failureThreshold <= 0) {
+      return;
+    }
+    if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+      if (state != State.OPEN) {
+        logger.atWarning().log(
+            "ECA service failed %d consecutive times, opening circuit for %d ms",
+            consecutiveFailures, openDurationMillis);
+      }
+      state = State.OPEN;
+      openedAt = System.currentTimeMillis();
+    }
+  }
+
+  synchronized State state() {
+    return state;
+  }
+
+  /** Whether the failure was caused by the circuit being open. */
+  static boolean isOpenCircuit(Throwable failure) {
+    return Throwables.getCausalChain(failure).stream()
+        .anyMatch(OpenCircuitException.class::isInstance);
+  }
+}
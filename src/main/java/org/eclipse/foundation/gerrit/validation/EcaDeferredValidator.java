@@ -0,0 +1,445 @@
+/**
+ * ***************************************************************************** Copyright (c) 2025
+ * Eclipse Foundation and others. All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0 which accompanies this
+ * distribution, and is available at http://www.eclipse.org/legal/epl-v10.html
+ * *****************************************************************************
+ */
+package org.eclipse.foundation.gerrit.validation;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.auto.value.AutoValue;
+import com.google.common.collect.Lists;
+import com.google.common.flogger.FluentLogger;
+import com.google.common.hash.Hashing;
+import com.google.gerrit.entities.Account;
+import com.google.gerrit.entities.Patch;
+import com.google.gerrit.entities.Project;
+import com.google.gerrit.extensions.annotations.PluginData;
+import com.google.gerrit.extensions.annotations.PluginName;
+import com.google.gerrit.extensions.api.GerritApi;
+import com.google.gerrit.extensions.api.changes.ReviewInput;
+import com.google.gerrit.extensions.events.LifecycleListener;
+import com.google.gerrit.extensions.restapi.RestApiException;
+import com.google.gerrit.server.config.GerritServerConfig;
+import com.google.gerrit.server.git.GitRepositoryManager;
+import com.google.gerrit.server.git.WorkQueue;
+import com.google.gerrit.server.git.validators.CommitValidationException;
+import com.google.gerrit.server.index.change.ChangeIndexer;
+import com.google.gerrit.server.query.change.ChangeData;
+import com.google.gerrit.server.query.change.ChangeQueryBuilder;
+import com.google.gerrit.server.query.change.ChangeQueryProcessor;
+import com.google.gerrit.server.util.ManualRequestContext;
+import com.google.gerrit.server.util.OneOffRequestContext;
+import com.google.inject.Inject;
+import com.google.inject.Provider;
+import com.google.inject.Singleton;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import org.eclipse.foundation.gerrit.validation.CommitStatus.CommitStatusMessage;
+import org.eclipse.jgit.errors.MissingObjectException;
+import org.eclipse.jgit.lib.Config;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevWalk;
+
+/**
+ * Validates in the background the commits pushed for review to the projects with {@code
+ * deferredValidation}, so that the push does not wait for the ECA API.
+ *
+ * <p>The queued commits are kept in the data directory of the plugin, one file per commit, and
+ * queued again when the plugin starts. Until its commit is validated, the submit requirement
+ * reports a change as pending, which blocks its submission. Once validated, the verdict is stored,
+ * the open changes of the commit are re-indexed and, if the commit fails, a robot comment is posted
+ * on them. Validations that cannot be performed are tried again with a growing delay, for as long as
+ * it takes.
+ */
+@Singleton
+class EcaDeferredValidator implements LifecycleListener {
+  private static final FluentLogger logger = FluentLogger.forEnclosingClass();
+
+  private static final String ROBOT_ID = "eca-validation";
+  private static final String ENTRY_SUFFIX = ".entry";
+
+  /** Delay gathering the commits of the same push. */
+  private static final long GATHER_MILLIS = 1000;
+
+  private static final long RETRY_DELAY_SECS = 60;
+  private static final long MAX_RETRY_DELAY_SECS = TimeUnit.MINUTES.toSeconds(15);
+
+  @AutoValue
+  abstract static class Key {
+    abstract Project.NameKey project();
+
+    abstract ObjectId commit();
+
+    static Key create(Project.NameKey project, ObjectId commit) {
+      return new AutoValue_EcaDeferredValidator_Key(project, commit.copy());
+    }
+  }
+
+  private final Path directory;
+  private final Optional<Account.Id> commentAccount;
+  private final WorkQueue workQueue;
+  private final GitRepositoryManager repoManager;
+  private final EcaProjectConfig.Factory projectConfigs;
+  private final Provider<ECASignedSubmitRequirement> validator;
+  private final EcaVerdictStore verdictStore;
+  private final Provider<ChangeQueryProcessor> queryProcessor;
+  private final Provider<ChangeQueryBuilder> queryBuilder;
+  private final ChangeIndexer indexer;
+  private final OneOffRequestContext requestContext;
+  private final GerritApi gApi;
+
+  private final Set<Key> pending = ConcurrentHashMap.newKeySet();
+
+  /** The number of failed attempts to validate the pending commits, since the plugin started. */
+  private final Map<Key, Integer> attempts = new ConcurrentHashMap<>();
+  private final AtomicBoolean scheduled = new AtomicBoolean();
+
+  private ScheduledExecutorService executor;
+
+  @Inject
+  EcaDeferredValidator(
+      @GerritServerConfig Config cfg,
+      @PluginName String pluginName,
+      @PluginData Path dataDir,
+      WorkQueue workQueue,
+      GitRepositoryManager repoManager,
+      EcaProjectConfig.Factory projectConfigs,
+      Provider<ECASignedSubmitRequirement> validator,
+      EcaVerdictStore verdictStore,
+      Provider<ChangeQueryProcessor> queryProcessor,
+      Provider<ChangeQueryBuilder> queryBuilder,
+      ChangeIndexer indexer,
+      OneOffRequestContext requestContext,
+      GerritApi gApi) {
+    this.directory = dataDir.resolve("deferred");
+    int account = cfg.getInt("plugin", pluginName, "deferredCommentAccount", 0);
+    this.commentAccount = account > 0 ? Optional.of(Account.id(account)) : Optional.empty();
+    this.workQueue = workQueue;
+    this.repoManager = repoManager;
+    this.projectConfigs = projectConfigs;
+    this.validator = validator;
+    this.verdictStore = verdictStore;
+    this.queryProcessor = queryProcessor;
+    this.queryBuilder = queryBuilder;
+    this.indexer = indexer;
+    this.requestContext = requestContext;
+    this.gApi = gApi;
+  }
+
+  @Override
+  public synchronized void start() {
+    executor = workQueue.createQueue(1, "ECA-Deferred");
+    try {
+      load();
+    } catch (IOException e) {
+      logger.atSevere().withCause(e).log(
+          "Cannot read the deferred ECA validations in %s", directory);
+    }
+    if (!pending.isEmpty()) {
+      logger.atInfo().log("Resuming %d deferred ECA validations", pending.size());
+      scheduleRun(0);
+    }
+  }
+
+  @Override
+  public synchronized void stop() {
+    if (executor != null) {
+      executor.shutdownNow();
+      executor = null;
+    }
+  }
+
+  /**
+   * Queues the validation of a commit, persisting it first so that it survives a restart.
+   *
+   * @param project the project of the commit
+   * @param commit the commit
+   * @return whether the commit was queued; if not, it must be validated right away
+   */
+  boolean add(Project.NameKey project, ObjectId commit) {
+    Key key = Key.create(project, commit);
+    Path file = path(key);
+    try {
+      Files.createDirectories(directory);
+      Path tmp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+      try {
+        Files.write(tmp, project.get().getBytes(UTF_8));
+        Files.move(
+            tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+      } finally {
+        Files.deleteIfExists(tmp);
+      }
+    } catch (IOException e) {
+      logger.atSevere().withCause(e).log("Cannot queue deferred ECA validation %s", file);
+      return false;
+    }
+    pending.add(key);
+    scheduleRun(GATHER_MILLIS);
+    return true;
+  }
+
+  /** Returns whether the validation of a commit is still pending. */
+  boolean isPending(Project.NameKey project, ObjectId commit) {
+    return !pending.isEmpty() && pending.contains(Key.create(project, commit));
+  }
+
+  private void load() throws IOException {
+    if (!Files.isDirectory(directory)) {
+      return;
+    }
+    try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + ENTRY_SUFFIX)) {
+      for (Path file : files) {
+        String name = file.getFileName().toString();
+        if (name.length() < Constants.OBJECT_ID_STRING_LENGTH
+            || !ObjectId.isId(name.substring(0, Constants.OBJECT_ID_STRING_LENGTH))) {
+          logger.atWarning().log("Ignoring invalid deferred ECA validation %s", file);
+          continue;
+        }
+        pending.add(
+            Key.create(
+                Project.nameKey(new String(Files.readAllBytes(file), UTF_8)),
+                ObjectId.fromString(name.substring(0, Constants.OBJECT_ID_STRING_LENGTH))));
+      }
+    }
+  }
+
+  private void remove(Key key) {
+    pending.remove(key);
+    attempts.remove(key);
+    try {
+      Files.deleteIfExists(path(key));
+    } catch (IOException e) {
+      logger.atWarning().withCause(e).log("Cannot delete deferred ECA validation %s", path(key));
+    }
+  }
+
+  private Path path(Key key) {
+    // project names are not safe file names
+    String project = Hashing.sha256().hashString(key.project().get(), UTF_8).toString();
+    return directory.resolve(key.commit().name() + "-" + project.substring(0, 16) + ENTRY_SUFFIX);
+  }
+
+  private synchronized void scheduleRun(long delayMillis) {
+    if (executor != null && scheduled.compareAndSet(false, true)) {
+      executor.schedule(this::run, delayMillis, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  private void run() {
+    scheduled.set(false);
+    Map<Project.NameKey, List<ObjectId>> byProject = new LinkedHashMap<>();
+    for (Key key : new ArrayList<>(pending)) {
+      byProject.computeIfAbsent(key.project(), p -> new ArrayList<>()).add(key.commit());
+    }
+
+    List<Key> failed = new ArrayList<>();
+    for (Map.Entry<Project.NameKey, List<ObjectId>> e : byProject.entrySet()) {
+      List<ObjectId> notValidated;
+      try {
+        notValidated = validate(e.getKey(), e.getValue());
+      } catch (Exception ex) {
+        logger.atWarning().withCause(ex).log(
+            "Cannot perform the deferred ECA validations of project %s", e.getKey());
+        notValidated = e.getValue();
+      }
+      notValidated.forEach(id -> failed.add(Key.create(e.getKey(), id)));
+    }
+
+    if (failed.isEmpty()) {
+      return;
+    }
+    // the commits stay queued, and pending, until they are validated
+    int minAttempts = Integer.MAX_VALUE;
+    for (Key key : failed) {
+      minAttempts = Math.min(minAttempts, attempts.merge(key, 1, Integer::sum));
+    }
+    long delaySecs = retryDelaySecs(minAttempts);
+    if (delaySecs == MAX_RETRY_DELAY_SECS) {
+      logger.atWarning().log(
+          "%d deferred ECA validations failed %d times, trying again in %d seconds",
+          failed.size(), minAttempts, delaySecs);
+    }
+    scheduleRun(TimeUnit.SECONDS.toMillis(delaySecs));
+  }
+
+  /** Returns the delay before the next attempt, doubled after each failed attempt up to a cap. */
+  private static long retryDelaySecs(int attempts) {
+    int doublings = Math.min(attempts - 1, 16);
+    return Math.min(RETRY_DELAY_SECS << doublings, MAX_RETRY_DELAY_SECS);
+  }
+
+  /**
+   * Validates the queued commits of a project, in batched requests.
+   *
+   * @return the commits that could not be validated, e.g. during an API outage
+   */
+  private List<ObjectId> validate(Project.NameKey project, List<ObjectId> commits)
+      throws IOException {
+    Optional<EcaProjectConfig> cfg = projectConfigs.get(project);
+    if (!cfg.isPresent()) {
+      logger.atWarning().log(
+          "Dropping %d deferred ECA validations of deleted project %s", commits.size(), project);
+      commits.forEach(id -> remove(Key.create(project, id)));
+      return Collections.emptyList();
+    }
+
+    List<Commit> requestCommits = new ArrayList<>(commits.size());
+    CommitPayload payload = cfg.get().payload();
+    try (Repository repo = repoManager.openRepository(project);
+        RevWalk rw = new RevWalk(repo)) {
+      for (ObjectId id : commits) {
+        try {
+          RevCommit c = rw.parseCommit(id);
+          requestCommits.add(
+              payload.toRequestCommit(c, c.getAuthorIdent(), c.getCommitterIdent(), true));
+        } catch (MissingObjectException e) {
+          // the push was rejected after the commit was queued
+          logger.atFine().log("Commit %s of project %s is gone", id.name(), project);
+          remove(Key.create(project, id));
+        }
+      }
+    }
+
+    List<ObjectId> notValidated = new ArrayList<>();
+    Map<ObjectId, List<String>> failing = new LinkedHashMap<>();
+    List<ObjectId> validated = new ArrayList<>(requestCommits.size());
+    for (List<Commit> chunk :
+        Lists.partition(requestCommits, Math.max(1, cfg.get().maxBatchSize()))) {
+      ValidationResponse response;
+      try {
+        response = validator.get().validate(project, chunk);
+      } catch (CommitValidationException e) {
+        logger.atWarning().log(
+            "Deferred ECA validation of %d commits of project %s failed: %s",
+            chunk.size(), project, e.getMessage());
+        chunk.forEach(c -> notValidated.add(ObjectId.fromString(c.hash())));
+        continue;
+      }
+      for (Commit c : chunk) {
+        Optional<ValidationResponse> commitResponse = response.forCommit(c.hash());
+        ObjectId id = ObjectId.fromString(c.hash());
+        if (!commitResponse.isPresent()) {
+          notValidated.add(id);
+          continue;
+        }
+        EcaVerdict verdict = EcaVerdict.fromResponse(commitResponse.get());
+        verdictStore.put(project, id, verdict);
+        remove(Key.create(project, id));
+        validated.add(id);
+        if (!verdict.satisfied()) {
+          failing.put(
+              id,
+              commitResponse.get().commits().get(c.hash()).errors().stream()
+                  .map(CommitStatusMessage::message)
+                  .collect(Collectors.toList()));
+        }
+      }
+    }
+    if (!validated.isEmpty()) {
+      updateChanges(project, validated, failing);
+    }
+    logger.atFine().log(
+        "Deferred ECA validation of %d commits of project %s, %d failing",
+        validated.size(), project, failing.size());
+    return notValidated;
+  }
+
+  /**
+   * Re-indexes the open changes of the validated commits, so that their indexed submittability
+   * reflects their verdict, and comments on the failing ones.
+   */
+  private void updateChanges(
+      Project.NameKey project, List<ObjectId> validated, Map<ObjectId, List<String>> failing) {
+    for (List<ObjectId> chunk : Lists.partition(validated, 100)) {
+      List<ChangeData> changes;
+      try (ManualRequestContext ctx = requestContext.open()) {
+        changes =
+            queryProcessor
+                .get()
+                .enforceVisibility(false)
+                .setNoLimit(true)
+                .query(
+                    queryBuilder
+                        .get()
+                        .parse(
+                            String.format(
+                                "status:open project:\"%s\" (%s)",
+                                project.get(),
+                                chunk.stream()
+                                    .map(id -> "commit:" + id.name())
+                                    .collect(Collectors.joining(" OR ")))))
+                .entities();
+      } catch (Exception e) {
+        logger.atWarning().withCause(e).log(
+            "Cannot find the changes of %d validated commits of project %s",
+            chunk.size(), project);
+        continue;
+      }
+
+      for (ChangeData cd : changes) {
+        ObjectId current = cd.currentPatchSet().commitId();
+        // earlier patch sets of the change may match the query as well
+        if (!chunk.contains(current)) {
+          continue;
+        }
+        indexer.index(project, cd.getId());
+        List<String> errors = failing.get(current);
+        if (errors != null) {
+          comment(project, cd, errors);
+        }
+      }
+    }
+  }
+
+  private void comment(Project.NameKey project, ChangeData cd, List<String> errors) {
+    if (!commentAccount.isPresent()) {
+      return;
+    }
+    ReviewInput.RobotCommentInput comment = new ReviewInput.RobotCommentInput();
+    comment.robotId = ROBOT_ID;
+    comment.robotRunId = Instant.now().toString();
+    comment.path = Patch.COMMIT_MSG;
+    List<String> lines = new ArrayList<>(errors);
+    lines.add("An Eclipse Contributor Agreement is required.");
+    lines.add(EclipseCommitValidationListener.ECA_DOCUMENTATION);
+    comment.message = String.join("\n", lines);
+
+    ReviewInput input = new ReviewInput();
+    input.tag = "autogenerated:eca";
+    input.robotComments =
+        Collections.singletonMap(comment.path, Collections.singletonList(comment));
+    try (ManualRequestContext ctx = requestContext.openAs(commentAccount.get())) {
+      gApi.changes().id(project.get(), cd.getId().get()).current().review(input);
+    } catch (RestApiException | RuntimeException e) {
+      logger.atWarning().withCause(e).log(
+          "Cannot comment the failed ECA validation on change %s", cd.getId());
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "ECA deferred validation";
+  }
+}
@@ -0,0 +1,289 @@
+/**
+ * ***************************************************************************** Copyright (c) 2025
+ * Eclipse Foundation and others. All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0 which accompanies this
+ * distribution, and is available at http://www.eclipse.org/legal/epl-v10.html
+ * *****************************************************************************
+ */
+package org.eclipse.foundation.gerrit.validation;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.ImmutableList;
+import com.google.common.flogger.FluentLogger;
+import com.google.gerrit.entities.AccountGroup;
+import com.google.gerrit.entities.GroupReference;
+import com.google.gerrit.server.CurrentUser;
+import com.google.gerrit.server.account.GroupBackend;
+import com.google.gerrit.server.account.GroupBackends;
+import com.google.gerrit.server.config.PluginConfig;
+import com.google.gerrit.server.project.RefPatternMatcher;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+import org.eclipse.jgit.lib.PersonIdent;
+import org.eclipse.jgit.revwalk.FooterLine;
+
+/**
+ * The rules of a project excluding commits from the ECA validation, e.g. the commits of bots, which
+ * are evaluated locally before the ECA API is called.
+ *
+ * <p>The rules are compiled once with the other settings of the project. A commit is excluded if
+ * both its author and its committer match an email or domain rule, if it has a footer line
+ * matching a trailer rule and its uploader is a member of a trailer group, if its uploader is a
+ * member of an excluded group, or if its destination branch matches a ref rule.
+ *
+ * <p>Anybody can add a footer line to a commit message, so the trailer rules are only honored for
+ * the uploaders trusted with {@code excludeTrailerGroup}, and ignored if no such group is set.
+ */
+final class EcaExclusions {
+  private static final FluentLogger logger = FluentLogger.forEnclosingClass();
+
+  static final EcaExclusions NONE =
+      new EcaExclusions(
+          ImmutableList.of(),
+          ImmutableList.of(),
+          ImmutableList.of(),
+          ImmutableList.of(),
+          ImmutableList.of(),
+          ImmutableList.of());
+
+  /** A compiled rule, described by its key and value in the {@code project.config} file. */
+  private abstract static class Rule {
+    final String description;
+
+    Rule(String key, String value) {
+      this.description = key + " = " + value;
+    }
+
+    abstract boolean matches(String subject);
+  }
+
+  private final ImmutableList<Rule> identities;
+  private final ImmutableList<Rule> trailers;
+  private final ImmutableList<String> trailerGroups;
+  private final ImmutableList<String> groups;
+  private final ImmutableList<String> refPatterns;
+  private final ImmutableList<RefPatternMatcher> refMatchers;
+
+  private EcaExclusions(
+      ImmutableList<Rule> identities,
+      ImmutableList<Rule> trailers,
+      ImmutableList<String> trailerGroups,
+      ImmutableList<String> groups,
+      ImmutableList<String> refPatterns,
+      ImmutableList<RefPatternMatcher> refMatchers) {
+    this.identities = identities;
+    this.trailers = trailers;
+    this.trailerGroups = trailerGroups;
+    this.groups = groups;
+    this.refPatterns = refPatterns;
+    this.refMatchers = refMatchers;
+  }
+
+  /**
+   * Compiles the exclusion rules of a project. Invalid patterns are logged and ignored.
+   *
+   * @param cfg the settings of the plugin for the project
+   * @return the compiled rules
+   */
+  static EcaExclusions fromPluginConfig(PluginConfig cfg) {
+    ImmutableList.Builder<Rule> identities = ImmutableList.builder();
+    for (String regex : cfg.getStringList("excludeEmail")) {
+      compile("excludeEmail", regex, Pattern.CASE_INSENSITIVE)
+          .ifPresent(
+              p ->
+                  identities.add(
+                      new Rule("excludeEmail", regex) {
+                        @Override
+                        boolean matches(String email) {
+                          return p.matcher(email).matches();
+                        }
+                      }));
+    }
+    for (String domain : cfg.getStringList("excludeDomain")) {
+      String suffix = "@" + domain.trim().toLowerCase(Locale.US);
+      identities.add(
+          new Rule("excludeDomain", domain) {
+            @Override
+            boolean matches(String email) {
+              return email.toLowerCase(Locale.US).endsWith(suffix);
+            }
+          });
+    }
+
+    ImmutableList.Builder<Rule> trailers = ImmutableList.builder();
+    for (String regex : cfg.getStringList("excludeTrailer")) {
+      compile("excludeTrailer", regex, 0)
+          .ifPresent(
+              p ->
+                  trailers.add(
+                      new Rule("excludeTrailer", regex) {
+                        @Override
+                        boolean matches(String footer) {
+                          return p.matcher(footer).matches();
+                        }
+                      }));
+    }
+
+    ImmutableList<String> trailerGroups =
+        ImmutableList.copyOf(cfg.getStringList("excludeTrailerGroup"));
+    ImmutableList<Rule> trailerRules = trailers.build();
+    if (trailerGroups.isEmpty() && !trailerRules.isEmpty()) {
+      logger.atWarning().log("Ignoring the excludeTrailer rules, no excludeTrailerGroup is set");
+      trailerRules = ImmutableList.of();
+    }
+
+    ImmutableList.Builder<String> refPatterns = ImmutableList.builder();
+    ImmutableList.Builder<RefPatternMatcher> refMatchers = ImmutableList.builder();
+    for (String pattern : cfg.getStringList("excludeRef")) {
+      try {
+        refMatchers.add(RefPatternMatcher.getMatcher(pattern));
+        refPatterns.add(pattern);
+      } catch (PatternSyntaxException e) {
+        logger.atWarning().log(
+            "Ignoring invalid excludeRef pattern %s: %s", pattern, e.getMessage());
+      }
+    }
+
+    EcaExclusions exclusions =
+        new EcaExclusions(
+            identities.build(),
+            trailerRules,
+            trailerGroups,
+            ImmutableList.copyOf(cfg.getStringList("excludeGroup")),
+            refPatterns.build(),
+            refMatchers.build());
+    return exclusions.isEmpty() ? NONE : exclusions;
+  }
+
+  private static Optional<Pattern> compile(String key, String regex, int flags) {
+    try {
+      return Optional.of(Pattern.compile(regex, flags));
+    } catch (PatternSyntaxException e) {
+      logger.atWarning().log("Ignoring invalid %s pattern %s: %s", key, regex, e.getMessage());
+      return Optional.empty();
+    }
+  }
+
+  boolean isEmpty() {
+    return identities.isEmpty() && trailers.isEmpty() && groups.isEmpty() && refMatchers.isEmpty();
+  }
+
+  /** Evaluates the exclusion rules, resolving the excluded groups with the group backend. */
+  @Singleton
+  static class Checker {
+    private final GroupBackend groupBackend;
+
+    /** The excluded groups by name, resolved again from time to time in case they are renamed. */
+    private final LoadingCache<String, Optional<AccountGroup.UUID>> groupsByName =
+        CacheBuilder.newBuilder()
+            .expireAfterWrite(10, TimeUnit.MINUTES)
+            .build(
+                new CacheLoader<String, Optional<AccountGroup.UUID>>() {
+                  @Override
+                  public Optional<AccountGroup.UUID> load(String name) {
+                    GroupReference ref = GroupBackends.findExactSuggestion(groupBackend, name);
+                    if (ref == null) {
+                      logger.atWarning().log("Excluded group %s not found", name);
+                      return Optional.empty();
+                    }
+                    return Optional.of(ref.getUUID());
+                  }
+                });
+
+    @Inject
+    Checker(GroupBackend groupBackend) {
+      this.groupBackend = groupBackend;
+    }
+
+    /**
+     * Returns the rule excluding a commit from the ECA validation, if any.
+     *
+     * @param exclusions the exclusion rules of the project
+     * @param footers the footer lines of the commit message, only read if the project has trailer
+     *     rules
+     * @param author the author of the commit
+     * @param committer the committer of the commit
+     * @param refName the destination branch of the commit
+     * @param uploader the user uploading the commit
+     * @return the description of the first matching rule, or empty if the commit is not excluded
+     */
+    Optional<String> excludedBy(
+        EcaExclusions exclusions,
+        Supplier<List<FooterLine>> footers,
+        PersonIdent author,
+        PersonIdent committer,
+        String refName,
+        CurrentUser uploader) {
+      if (exclusions.isEmpty()) {
+        return Optional.empty();
+      }
+
+      for (int i = 0; i < exclusions.refMatchers.size(); i++) {
+        if (exclusions.refMatchers.get(i).match(refName, uploader)) {
+          return Optional.of("excludeRef = " + exclusions.refPatterns.get(i));
+        }
+      }
+
+      Optional<String> authorRule = identityRule(exclusions, author.getEmailAddress());
+      if (authorRule.isPresent()
+          && identityRule(exclusions, committer.getEmailAddress()).isPresent()) {
+        return authorRule;
+      }
+
+      if (!exclusions.trailers.isEmpty()) {
+        Optional<String> trailerRule = trailerRule(exclusions, footers.get());
+        // the trailers of untrusted uploaders are ignored, they could have added them themselves
+        if (trailerRule.isPresent() && memberOf(exclusions.trailerGroups, uploader).isPresent()) {
+          return trailerRule;
+        }
+      }
+
+      return memberOf(exclusions.groups, uploader).map(group -> "excludeGroup = " + group);
+    }
+
+    /** Returns the first of the groups the user is a member of, if any. */
+    private Optional<String> memberOf(List<String> groups, CurrentUser user) {
+      for (String group : groups) {
+        Optional<AccountGroup.UUID> uuid = groupsByName.getUnchecked(group);
+        if (uuid.isPresent() && user.getEffectiveGroups().contains(uuid.get())) {
+          return Optional.of(group);
+        }
+      }
+      return Optional.empty();
+    }
+
+    private static Optional<String> trailerRule(
+        EcaExclusions exclusions, List<FooterLine> footers) {
+      for (FooterLine footer : footers) {
+        String line = footer.getKey() + ": " + footer.getValue();
+        for (Rule rule : exclusions.trailers) {
+          if (rule.matches(line)) {
+            return Optional.of(rule.description);
+          }
+        }
+      }
+      return Optional.empty();
+    }
+
+    private static Optional<String> identityRule(EcaExclusions exclusions, String email) {
+      if (email == null) {
+        return Optional.empty();
+      }
+      for (Rule rule : exclusions.identities) {
+        if (rule.matches(email)) {
+          return Optional.of(rule.description);
+        }
+      }
+      return Optional.empty();
+    }
+  }
+}
@@ -0,0 +1,318 @@
+/**
+ * ***************************************************************************** Copyright (c) 2025
+ * Eclipse Foundation and others. All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0 which accompanies this
+ * distribution, and is available at http://www.eclipse.org/legal/epl-v10.html
+ * *****************************************************************************
+ */
+package org.eclipse.foundation.gerrit.validation;
+
+import com.google.auto.value.AutoValue;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+import com.google.common.flogger.FluentLogger;
+import com.google.gerrit.entities.Project;
+import com.google.gerrit.extensions.annotations.PluginName;
+import com.google.gerrit.server.cache.CacheModule;
+import com.google.gerrit.server.cache.serialize.BooleanCacheSerializer;
+import com.google.gerrit.server.cache.serialize.StringCacheSerializer;
+import com.google.gerrit.server.config.ConfigUtil;
+import com.google.gerrit.server.config.GerritServerConfig;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.google.inject.name.Named;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.foundation.gerrit.validation.CommitStatus.CommitStatusMessage;
+import org.eclipse.jgit.lib.Config;
+import org.eclipse.jgit.lib.ObjectId;
+
+/**
+ * Cache of the ECA status of the identities (author and committer emails) of validated commits.
+ *
+ * <p>An ECA belongs to a person rather than to a commit, so once the commits of an identity have
+ * been validated by the API, further commits of the same identity are resolved locally until the
+ * verdict expires. Passing and failing verdicts have separate time-to-live, so that a contributor
+ * who just signed the agreement is not blocked for long.
+ */
+@Singleton
+class EcaIdentityCache {
+  private static final FluentLogger logger = FluentLogger.forEnclosingClass();
+
+  static final String CACHE_NAME = "eca_identities";
+  static final String PROJECTS_CACHE_NAME = "eca_projects";
+
+  static final long DEFAULT_PASS_TTL_SECS = TimeUnit.DAYS.toSeconds(1);
+  static final long DEFAULT_FAIL_TTL_SECS = TimeUnit.MINUTES.toSeconds(10);
+  private static final long DEFAULT_PREWARM_WINDOW_SECS = TimeUnit.DAYS.toSeconds(7);
+  private static final int DEFAULT_PREWARM_MAX_IDENTITIES = 10000;
+  private static final int CACHED_STATUS_CODE = 200;
+
+  static class EcaIdentityCacheModule extends CacheModule {
+    @Override
+    protected void configure() {
+      persist(CACHE_NAME, String.class, IdentityVerdict.class)
+          .version(1)
+          .keySerializer(StringCacheSerializer.INSTANCE)
+          .valueSerializer(new JsonCacheSerializer<>(IdentityVerdict.class))
+          .diskLimit(64 << 20)
+          .maximumWeight(16 << 10);
+      persist(PROJECTS_CACHE_NAME, String.class, Boolean.class)
+          .version(1)
+          .keySerializer(StringCacheSerializer.INSTANCE)
+          .valueSerializer(BooleanCacheSerializer.INSTANCE)
+          .diskLimit(1 << 20)
+          .maximumWeight(16 << 10);
+    }
+  }
+
+  private final SharedCache<IdentityVerdict> verdicts;
+  private final long passTtlMillis;
+  private final long failTtlMillis;
+
+  /**
+   * Whether a project is tracked by the ECA API, as reported by its last response, by project name.
+   * Persisted like the verdicts, whose keys depend on it.
+   */
+  private final SharedCache<Boolean> trackedProjects;
+
+  /** The last commit of each identity seen within the pre-warming window, by email. */
+  private final Cache<String, Sighting> sightings;
+
+  @AutoValue
+  abstract static class Sighting {
+    abstract Project.NameKey project();
+
+    abstract ObjectId commitId();
+
+    static Sighting create(Project.NameKey project, ObjectId commitId) {
+      return new AutoValue_EcaIdentityCache_Sighting(project, commitId);
+    }
+  }
+
+  @Inject
+  EcaIdentityCache(
+      @Named(CACHE_NAME) Cache<String, IdentityVerdict> verdicts,
+      @Named(PROJECTS_CACHE_NAME) Cache<String, Boolean> trackedProjects,
+      EcaSharedStore sharedStore,
+      @GerritServerConfig Config cfg,
+      @PluginName String pluginName) {
+    this.verdicts = new SharedCache<>(CACHE_NAME, verdicts, sharedStore, IdentityVerdict.class);
+    this.trackedProjects =
+        new SharedCache<>(PROJECTS_CACHE_NAME, trackedProjects, sharedStore, Boolean.class);
+    this.passTtlMillis =
+        ConfigUtil.getTimeUnit(
+            cfg,
+            "plugin",
+            pluginName,
+            "identityCachePassTtl",
+            DEFAULT_PASS_TTL_SECS,
+            TimeUnit.SECONDS)
+            * 1000;
+    this.failTtlMillis =
+        ConfigUtil.getTimeUnit(
+            cfg,
+            "plugin",
+            pluginName,
+            "identityCacheFailTtl",
+            DEFAULT_FAIL_TTL_SECS,
+            TimeUnit.SECONDS)
+            * 1000;
+    this.sightings =
+        CacheBuilder.newBuilder()
+            .maximumSize(
+                cfg.getInt(
+                    "plugin", pluginName, "prewarmMaxIdentities", DEFAULT_PREWARM_MAX_IDENTITIES))
+            .expireAfterWrite(
+                ConfigUtil.getTimeUnit(
+                    cfg,
+                    "plugin",
+                    pluginName,
+                    "prewarmWindow",
+                    DEFAULT_PREWARM_WINDOW_SECS,
+                    TimeUnit.SECONDS),
+                TimeUnit.SECONDS)
+            .build();
+  }
+
+  /**
+   * Whether the project is tracked by the ECA API, as reported by its last validation.
+   *
+   * @param project the project
+   * @return true if the project is known to be tracked
+   */
+  boolean isTracked(Project.NameKey project) {
+    return Boolean.TRUE.equals(trackedProjects.getIfPresent(project.get()));
+  }
+
+  /**
+   * Resolves the status of a commit from the cached verdicts of its author and committer.
+   *
+   * @param project the project the commit belongs to
+   * @param commit the commit to resolve
+   * @return the status of the commit, or empty if the API needs to be called for it
+   */
+  Optional<CommitStatus> lookup(Project.NameKey project, Commit commit) {
+    return lookup(project, commit, false);
+  }
+
+  /**
+   * Resolves the status of a commit from the last known verdicts of its author and committer, even
+   * if they have expired. Used when the ECA API is unavailable.
+   *
+   * @param project the project the commit belongs to
+   * @param commit the commit to resolve
+   * @return the status of the commit, or empty if an identity was never validated
+   */
+  Optional<CommitStatus> lookupLastKnown(Project.NameKey project, Commit commit) {
+    return lookup(project, commit, true);
+  }
+
+  private Optional<CommitStatus> lookup(
+      Project.NameKey project, Commit commit, boolean includeExpired) {
+    Boolean tracked = trackedProjects.getIfPresent(project.get());
+    if (tracked == null) {
+      return Optional.empty();
+    }
+
+    List<CommitStatusMessage> messages = new ArrayList<>();
+    for (String email : emails(commit)) {
+      Optional<IdentityVerdict> verdict = get(email, tracked, includeExpired);
+      if (!verdict.isPresent()) {
+        return Optional.empty();
+      }
+      if (verdict.get().passed()) {
+        messages.add(
+            CommitStatusMessage.create(
+                CACHED_STATUS_CODE,
+                String.format(
+                    "%s is covered by the necessary legal agreements (cached result).", email)));
+      } else {
+        // a failure of any of the identities makes the commit fail
+        return Optional.of(
+            CommitStatus.create(
+                verdict.get().messages(), ImmutableList.of(), verdict.get().errors()));
+      }
+    }
+    return Optional.of(CommitStatus.create(messages, ImmutableList.of(), ImmutableList.of()));
+  }
+
+  /**
+   * Records the verdicts returned by the API for the identities of the validated commits.
+   *
+   * @param project the project the commits belong to
+   * @param commits the commits sent to the API
+   * @param response the response of the API
+   */
+  void record(Project.NameKey project, List<Commit> commits, ValidationResponse response) {
+    boolean tracked = response.trackedProject();
+    if (!Boolean.valueOf(tracked).equals(trackedProjects.getIfPresent(project.get()))) {
+      trackedProjects.put(project.get(), tracked);
+    }
+    long now = System.currentTimeMillis();
+    for (Commit commit : commits) {
+      CommitStatus status = response.commits().get(commit.hash());
+      if (status == null) {
+        continue;
+      }
+      Set<String> emails = emails(commit);
+      if (status.errors().isEmpty()) {
+        IdentityVerdict passed =
+            IdentityVerdict.create(true, now, ImmutableList.of(), ImmutableList.of());
+        emails.forEach(email -> verdicts.put(key(email, tracked), passed));
+      } else if (emails.size() == 1) {
+        // the failure can only be attributed when author and committer are the same person
+        verdicts.put(
+            key(emails.iterator().next(), tracked),
+            IdentityVerdict.create(false, now, status.messages(), status.errors()));
+      }
+    }
+  }
+
+  /**
+   * Forgets the verdicts of an identity, e.g. when it just signed or revoked its agreement, so that
+   * its next commits are validated by the API.
+   *
+   * @param email the email of the identity
+   */
+  void evict(String email) {
+    verdicts.invalidate(key(email, true));
+    verdicts.invalidate(key(email, false));
+    logger.atFine().log("Evicted cached ECA verdicts for %s", email);
+  }
+
+  /**
+   * Records that the identities of a commit were just seen in a push or a change evaluation.
+   *
+   * @param project the project the commit belongs to
+   * @param commit the commit
+   */
+  void seen(Project.NameKey project, Commit commit) {
+    Sighting sighting = Sighting.create(project, ObjectId.fromString(commit.hash()));
+    emails(commit).forEach(email -> sightings.put(email, sighting));
+  }
+
+  /**
+   * Returns the commits to validate again so that the verdicts of the identities seen recently are
+   * refreshed before they expire.
+   *
+   * @param refreshAheadMillis how long before its expiry a verdict is refreshed
+   * @return the last commit of each identity whose verdict is missing, expired or about to expire,
+   *     by project
+   */
+  Map<Project.NameKey, Set<ObjectId>> dueForRefresh(long refreshAheadMillis) {
+    long now = System.currentTimeMillis();
+    Map<Project.NameKey, Set<ObjectId>> due = new LinkedHashMap<>();
+    for (Map.Entry<String, Sighting> e : sightings.asMap().entrySet()) {
+      Sighting sighting = e.getValue();
+      IdentityVerdict verdict =
+          verdicts.getIfPresent(key(e.getKey(), isTracked(sighting.project())));
+      if (verdict != null) {
+        long ttl = verdict.passed() ? passTtlMillis : failTtlMillis;
+        if (now - verdict.timestamp() < ttl - refreshAheadMillis) {
+          continue;
+        }
+      }
+      due.computeIfAbsent(sighting.project(), p -> new LinkedHashSet<>())
+          .add(sighting.commitId());
+    }
+    return due;
+  }
+
+  private Optional<IdentityVerdict> get(String email, boolean tracked, boolean includeExpired) {
+    IdentityVerdict verdict = verdicts.getIfPresent(key(email, tracked));
+    if (verdict == null) {
+      return Optional.empty();
+    }
+    long ttl = verdict.passed() ? passTtlMillis : failTtlMillis;
+    // expired verdicts are kept as last known verdicts until they are replaced
+    if (!includeExpired && System.currentTimeMillis() - verdict.timestamp() > ttl) {
+      logger.atFine().log("Cached ECA verdict for %s has expired", email);
+      return Optional.empty();
+    }
+    return Optional.of(verdict);
+  }
+
+  private static Set<String> emails(Commit commit) {
+    Set<String> emails = new LinkedHashSet<>(2);
+    emails.add(normalize(commit.author().mail()));
+    emails.add(normalize(commit.committer().mail()));
+    return emails;
+  }
+
+  private static String normalize(String email) {
+    return email.trim().toLowerCase(Locale.US);
+  }
+
+  private static String key(String email, boolean tracked) {
+    return (tracked ? "tracked:" : "untracked:") + normalize(email);
+  }
+}
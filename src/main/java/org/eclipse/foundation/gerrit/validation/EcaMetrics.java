@@ -0,0 +1,157 @@
+/**
+ * ***************************************************************************** Copyright (c) 2025
+ * Eclipse Foundation and others. All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0 which accompanies this
+ * distribution, and is available at http://www.eclipse.org/legal/epl-v10.html
+ * *****************************************************************************
+ */
+package org.eclipse.foundation.gerrit.validation;
+
+import com.google.gerrit.metrics.Counter0;
+import com.google.gerrit.metrics.Counter1;
+import com.google.gerrit.metrics.Counter2;
+import com.google.gerrit.metrics.Description;
+import com.google.gerrit.metrics.Description.Units;
+import com.google.gerrit.metrics.Field;
+import com.google.gerrit.metrics.Histogram0;
+import com.google.gerrit.metrics.MetricMaker;
+import com.google.gerrit.metrics.Timer1;
+import com.google.gerrit.server.logging.Metadata;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import java.util.concurrent.TimeUnit;
+
+/** Metrics of the ECA validations, exposed on the metrics endpoints of Gerrit. */
+@Singleton
+class EcaMetrics {
+  /** Who asked for an ECA validation. */
+  enum Caller {
+    LISTENER,
+    SUBMIT_REQUIREMENT
+  }
+
+  /** The result of an ECA validation. */
+  enum Outcome {
+    PASS,
+    FAIL,
+    UNTRACKED,
+    ERROR,
+    EXCLUDED,
+    DEFERRED
+  }
+
+  private final Timer1<Integer> apiLatency;
+  private final Histogram0 requestSize;
+  private final Histogram0 commitsPerRequest;
+  private final Counter2<String, Boolean> cacheLookups;
+  private final Counter1<Outcome> outcomes;
+  private final Counter1<Caller> validations;
+  private final Counter0 coalescedCommits;
+
+  @Inject
+  EcaMetrics(MetricMaker metricMaker) {
+    apiLatency =
+        metricMaker.newTimer(
+            "api/latency",
+            new Description("Latency of the requests to the ECA API")
+                .setCumulative()
+                .setUnit(Units.MILLISECONDS),
+            Field.ofInteger("status", Metadata.Builder::httpStatus)
+                .description("HTTP status of the response, 0 if the request failed")
+                .build());
+    requestSize =
+        metricMaker.newHistogram(
+            "api/request_size",
+            new Description("Size of the requests sent to the ECA API")
+                .setCumulative()
+                .setUnit(Units.BYTES));
+    commitsPerRequest =
+        metricMaker.newHistogram(
+            "api/commits_per_request",
+            new Description("Number of commits sent in a single request to the ECA API")
+                .setCumulative()
+                .setUnit("commits"));
+    cacheLookups =
+        metricMaker.newCounter(
+            "cache/lookups",
+            new Description("Lookups of ECA verdicts in the caches of the plugin")
+                .setRate()
+                .setUnit("lookups"),
+            Field.ofString("cache", Field.ignoreMetadata())
+                .description("Name of the cache")
+                .build(),
+            Field.ofBoolean("hit", Field.ignoreMetadata())
+                .description("Whether a verdict was found")
+                .build());
+    outcomes =
+        metricMaker.newCounter(
+            "validation/outcome",
+            new Description("Outcome of the ECA validations of commits")
+                .setRate()
+                .setUnit("commits"),
+            Field.ofEnum(Outcome.class, "outcome", Field.ignoreMetadata())
+                .description("Outcome of the validation")
+                .build());
+    validations =
+        metricMaker.newCounter(
+            "validation/evaluations",
+            new Description("ECA evaluations, by caller")
+                .setRate()
+                .setUnit("evaluations"),
+            Field.ofEnum(Caller.class, "caller", Field.ignoreMetadata())
+                .description("Listener or submit requirement asking for the evaluation")
+                .build());
+    coalescedCommits =
+        metricMaker.newCounter(
+            "api/coalesced_requests",
+            new Description(
+                    "Commits not sent to the ECA API because a request containing them was in"
+                        + " flight")
+                .setRate()
+                .setUnit("commits"));
+  }
+
+  void recordApiCall(int httpStatus, long durationNanos) {
+    apiLatency.record(httpStatus, durationNanos, TimeUnit.NANOSECONDS);
+  }
+
+  void recordRequestSize(long bytes) {
+    requestSize.record(bytes);
+  }
+
+  void recordCommitsPerRequest(int commits) {
+    commitsPerRequest.record(commits);
+  }
+
+  void recordCoalescedCommit() {
+    coalescedCommits.increment();
+  }
+
+  void recordCacheLookup(String cache, boolean hit) {
+    cacheLookups.increment(cache, hit);
+  }
+
+  void recordEvaluation(Caller caller) {
+    validations.increment(caller);
+  }
+
+  void recordOutcome(ValidationResponse response) {
+    if (!response.trackedProject()) {
+      outcomes.increment(Outcome.UNTRACKED);
+    } else {
+      outcomes.increment(response.errorCount() == 0 ? Outcome.PASS : Outcome.FAIL);
+    }
+  }
+
+  void recordError() {
+    outcomes.increment(Outcome.ERROR);
+  }
+
+  void recordExcluded() {
+    outcomes.increment(Outcome.EXCLUDED);
+  }
+
+  void recordDeferred() {
+    outcomes.increment(Outcome.DEFERRED);
+  }
+}
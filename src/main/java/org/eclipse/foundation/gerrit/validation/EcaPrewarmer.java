@@ -0,0 +1,217 @@
+/**
+ * ***************************************************************************** Copyright (c) 2025
+ * Eclipse Foundation and others. All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0 which accompanies this
+ * distribution, and is available at http://www.eclipse.org/legal/epl-v10.html
+ * *****************************************************************************
+ */
+package org.eclipse.foundation.gerrit.validation;
+
+import com.google.common.collect.Lists;
+import com.google.common.flogger.FluentLogger;
+import com.google.common.util.concurrent.RateLimiter;
+import com.google.gerrit.entities.Project;
+import com.google.gerrit.extensions.annotations.PluginName;
+import com.google.gerrit.extensions.events.LifecycleListener;
+import com.google.gerrit.server.config.ConfigUtil;
+import com.google.gerrit.server.config.GerritServerConfig;
+import com.google.gerrit.server.config.ScheduleConfig;
+import com.google.gerrit.server.git.GitRepositoryManager;
+import com.google.gerrit.server.git.WorkQueue;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.jgit.errors.MissingObjectException;
+import org.eclipse.jgit.lib.Config;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevWalk;
+
+/**
+ * Background job refreshing the ECA verdicts of the identities seen recently, shortly before they
+ * expire, so that their next push or change evaluation does not wait for the ECA API.
+ *
+ * <p>The job is scheduled with {@code prewarmInterval} and {@code prewarmStartTime}, and disabled
+ * unless an interval is configured. It sends its requests one at a time, at most {@code
+ * prewarmRate} per second, and waits while interactive validations are running.
+ */
+@Singleton
+class EcaPrewarmer implements LifecycleListener, Runnable {
+  private static final FluentLogger logger = FluentLogger.forEnclosingClass();
+
+  private static final long DEFAULT_REFRESH_AHEAD_SECS = TimeUnit.HOURS.toSeconds(1);
+  private static final double DEFAULT_RATE = 1.0;
+  private static final int BATCH_SIZE = 100;
+  private static final long YIELD_MILLIS = 100;
+  private static final int MAX_YIELDS = 50;
+
+  private final Optional<ScheduleConfig.Schedule> schedule;
+  private final long refreshAheadMillis;
+  private final RateLimiter rateLimiter;
+  private final WorkQueue workQueue;
+  private final GitRepositoryManager repoManager;
+  private final EcaIdentityCache identityCache;
+  private final BaseEclipseCommitValidator validator;
+  private final RetrofitFactory retrofitFactory;
+  private final EcaCircuitBreaker circuitBreaker;
+
+  private ScheduledExecutorService executor;
+
+  @Inject
+  EcaPrewarmer(
+      @GerritServerConfig Config cfg,
+      @PluginName String pluginName,
+      WorkQueue workQueue,
+      GitRepositoryManager repoManager,
+      EcaIdentityCache identityCache,
+      ECASignedSubmitRequirement validator,
+      RetrofitFactory retrofitFactory,
+      EcaCircuitBreaker circuitBreaker) {
+    this.schedule =
+        ScheduleConfig.builder(cfg, "plugin")
+            .setSubsection(pluginName)
+            .setKeyInterval("prewarmInterval")
+            .setKeyStartTime("prewarmStartTime")
+            .buildSchedule();
+    this.refreshAheadMillis =
+        ConfigUtil.getTimeUnit(
+                cfg,
+                "plugin",
+                pluginName,
+                "prewarmRefreshAhead",
+                DEFAULT_REFRESH_AHEAD_SECS,
+                TimeUnit.SECONDS)
+            * 1000;
+    this.rateLimiter = RateLimiter.create(rate(cfg.getString("plugin", pluginName, "prewarmRate")));
+    this.workQueue = workQueue;
+    this.repoManager = repoManager;
+    this.identityCache = identityCache;
+    this.validator = validator;
+    this.retrofitFactory = retrofitFactory;
+    this.circuitBreaker = circuitBreaker;
+  }
+
+  /** Parses {@code prewarmRate}, falling back to the default rate if it is not a positive number. */
+  private static double rate(String value) {
+    if (value == null) {
+      return DEFAULT_RATE;
+    }
+    try {
+      double rate = Double.parseDouble(value.trim());
+      if (rate > 0 && !Double.isInfinite(rate)) {
+        return rate;
+      }
+    } catch (NumberFormatException e) {
+      // reported below
+    }
+    logger.atWarning().log(
+        "Invalid prewarmRate %s, using the default of %s requests per second", value, DEFAULT_RATE);
+    return DEFAULT_RATE;
+  }
+
+  @Override
+  public synchronized void start() {
+    if (!schedule.isPresent()) {
+      logger.atFine().log("ECA status pre-warming is disabled");
+      return;
+    }
+    executor = workQueue.createQueue(1, "ECA-Prewarm");
+    executor.scheduleAtFixedRate(
+        this, schedule.get().initialDelay(), schedule.get().interval(), TimeUnit.MILLISECONDS);
+    logger.atInfo().log("ECA status pre-warming scheduled: %s", schedule.get());
+  }
+
+  @Override
+  public synchronized void stop() {
+    if (executor != null) {
+      executor.shutdownNow();
+      executor = null;
+    }
+  }
+
+  @Override
+  public void run() {
+    Map<Project.NameKey, Set<ObjectId>> due = identityCache.dueForRefresh(refreshAheadMillis);
+    int refreshed = 0;
+    for (Map.Entry<Project.NameKey, Set<ObjectId>> e : due.entrySet()) {
+      List<Commit> commits;
+      try {
+        commits = requestCommits(e.getKey(), e.getValue());
+      } catch (IOException ex) {
+        logger.atWarning().withCause(ex).log("Cannot read commits of project %s", e.getKey());
+        continue;
+      }
+      for (List<Commit> chunk : Lists.partition(commits, BATCH_SIZE)) {
+        if (!awaitIdle()) {
+          logger.atFine().log("ECA service busy or unavailable, pre-warming postponed");
+          return;
+        }
+        rateLimiter.acquire();
+        try {
+          validator.revalidate(e.getKey(), chunk).get();
+          refreshed += chunk.size();
+        } catch (ExecutionException ex) {
+          logger.atWarning().withCause(ex.getCause()).log(
+              "Cannot refresh ECA status of %d commits of project %s", chunk.size(), e.getKey());
+        } catch (InterruptedException ex) {
+          Thread.currentThread().interrupt();
+          return;
+        }
+      }
+    }
+    logger.atFine().log("Refreshed ECA status of %d identities", refreshed);
+  }
+
+  private List<Commit> requestCommits(Project.NameKey project, Set<ObjectId> ids)
+      throws IOException {
+    CommitPayload payload = validator.payload(project);
+    List<Commit> commits = new ArrayList<>(ids.size());
+    try (Repository repo = repoManager.openRepository(project);
+        RevWalk rw = new RevWalk(repo)) {
+      for (ObjectId id : ids) {
+        try {
+          RevCommit c = rw.parseCommit(id);
+          commits.add(
+              payload.toRequestCommit(c, c.getAuthorIdent(), c.getCommitterIdent(), false));
+        } catch (MissingObjectException e) {
+          // the push was rejected, or the commit was garbage collected since
+          logger.atFine().log("Commit %s of project %s is gone", id.name(), project);
+        }
+      }
+    }
+    return commits;
+  }
+
+  /** Waits until no interactive validation is running, giving up after a while. */
+  private boolean awaitIdle() {
+    for (int i = 0; i < MAX_YIELDS; i++) {
+      if (circuitBreaker.state() != EcaCircuitBreaker.State.CLOSED) {
+        return false;
+      }
+      if (retrofitFactory.runningCalls() == 0) {
+        return true;
+      }
+      try {
+        TimeUnit.MILLISECONDS.sleep(YIELD_MILLIS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return false;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public String toString() {
+    return "ECA status pre-warming";
+  }
+}
@@ -0,0 +1,158 @@
+/**
+ * ***************************************************************************** Copyright (c) 2025
+ * Eclipse Foundation and others. All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0 which accompanies this
+ * distribution, and is available at http://www.eclipse.org/legal/epl-v10.html
+ * *****************************************************************************
+ */
+package org.eclipse.foundation.gerrit.validation;
+
+import com.google.auto.value.AutoValue;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+import com.google.gerrit.entities.Project;
+import com.google.gerrit.extensions.annotations.PluginName;
+import com.google.gerrit.server.config.PluginConfig;
+import com.google.gerrit.server.config.PluginConfigFactory;
+import com.google.gerrit.server.project.ProjectCache;
+import com.google.gerrit.server.project.ProjectState;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * The settings of the plugin for a project, from the {@code project.config} files of the project
+ * and its parents.
+ */
+@AutoValue
+abstract class EcaProjectConfig {
+  static final int DEFAULT_API_TIMEOUT_SECS = 20;
+  static final int DEFAULT_MAX_BATCH_SIZE = 100;
+  static final int DEFAULT_MAX_CONCURRENT_REQUESTS = 4;
+  static final int DEFAULT_VALIDATION_DEADLINE_SECS = 60;
+
+  abstract boolean enabled();
+
+  /** Timeout of the requests to the ECA API, in seconds. */
+  abstract int apiTimeout();
+
+  abstract int maxBatchSize();
+
+  abstract int maxConcurrentRequests();
+
+  /** Maximum time a push waits for its requests to the ECA API, in seconds. */
+  abstract int validationDeadline();
+
+  abstract boolean skipKnownCommits();
+
+  /** Number of new commits from which a push is reported as a summary, {@code 0} if never. */
+  abstract int summaryThreshold();
+
+  /** The part of the commit messages sent to the ECA API. */
+  abstract CommitPayload payload();
+
+  abstract EcaCircuitBreaker.OutagePolicy outagePolicy();
+
+  /** Whether the commits pushed for review are validated in the background, after the push. */
+  abstract boolean deferredValidation();
+
+  /** The rules excluding commits from the validation, evaluated before the ECA API is called. */
+  abstract EcaExclusions exclusions();
+
+  static EcaProjectConfig fromPluginConfig(PluginConfig cfg) {
+    return new AutoValue_EcaProjectConfig(
+        "true".equals(cfg.getString("enabled", "false")),
+        cfg.getInt("apiTimeout", DEFAULT_API_TIMEOUT_SECS),
+        cfg.getInt("maxBatchSize", DEFAULT_MAX_BATCH_SIZE),
+        cfg.getInt("maxConcurrentRequests", DEFAULT_MAX_CONCURRENT_REQUESTS),
+        cfg.getInt("validationDeadline", DEFAULT_VALIDATION_DEADLINE_SECS),
+        cfg.getBoolean("skipKnownCommits", true),
+        cfg.getInt("summaryThreshold", 0),
+        new CommitPayload(
+            cfg.getEnum("payloadProfile", CommitPayload.Profile.FULL),
+            cfg.getInt("maxBodyBytes", 0)),
+        cfg.getEnum("outagePolicy", EcaCircuitBreaker.OutagePolicy.FAIL_CLOSED),
+        cfg.getBoolean("deferredValidation", false),
+        EcaExclusions.fromPluginConfig(cfg));
+  }
+
+  /**
+   * Resolves the settings of the projects, once per snapshot of their project state.
+   *
+   * <p>The project cache replaces the state of a project when its {@code refs/meta/config} branch
+   * changes. The settings resolved for a state are reused as long as that state and the states of
+   * its parents are the current ones, instead of walking the hierarchy of {@code project.config}
+   * files for every commit.
+   */
+  @Singleton
+  static class Factory {
+    private final ProjectCache projectCache;
+    private final PluginConfigFactory pluginCfgFactory;
+    private final String pluginName;
+
+    /** The settings resolved for each project state, released with the state. */
+    private final Cache<ProjectState, Resolved> resolved =
+        CacheBuilder.newBuilder().weakKeys().build();
+
+    @AutoValue
+    abstract static class Resolved {
+      /** The states of the parents the settings were resolved with. */
+      abstract ImmutableList<ProjectState> parents();
+
+      abstract EcaProjectConfig config();
+    }
+
+    @Inject
+    Factory(
+        ProjectCache projectCache,
+        PluginConfigFactory pluginCfgFactory,
+        @PluginName String pluginName) {
+      this.projectCache = projectCache;
+      this.pluginCfgFactory = pluginCfgFactory;
+      this.pluginName = pluginName;
+    }
+
+    /**
+     * Returns the settings of a project.
+     *
+     * @param project the project
+     * @return the settings, or empty if the project does not exist
+     */
+    Optional<EcaProjectConfig> get(Project.NameKey project) {
+      return projectCache.get(project).map(this::get);
+    }
+
+    /**
+     * Returns the settings of a project.
+     *
+     * @param state the current state of the project
+     * @return the settings
+     */
+    EcaProjectConfig get(ProjectState state) {
+      ImmutableList<ProjectState> parents = state.parents().toList();
+      Resolved r = resolved.getIfPresent(state);
+      if (r != null && sameStates(r.parents(), parents)) {
+        return r.config();
+      }
+      EcaProjectConfig cfg =
+          fromPluginConfig(pluginCfgFactory.getFromProjectConfigWithInheritance(state, pluginName));
+      resolved.put(state, new AutoValue_EcaProjectConfig_Factory_Resolved(parents, cfg));
+      return cfg;
+    }
+
+    private static boolean sameStates(List<ProjectState> a, List<ProjectState> b) {
+      if (a.size() != b.size()) {
+        return false;
+      }
+      // a parent whose configuration changed has a new state
+      for (int i = 0; i < a.size(); i++) {
+        if (a.get(i) != b.get(i)) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+}
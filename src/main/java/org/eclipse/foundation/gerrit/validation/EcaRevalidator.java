@@ -0,0 +1,175 @@
+/**
+ * ***************************************************************************** Copyright (c) 2025
+ * Eclipse Foundation and others. All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0 which accompanies this
+ * distribution, and is available at http://www.eclipse.org/legal/epl-v10.html
+ * *****************************************************************************
+ */
+package org.eclipse.foundation.gerrit.validation;
+
+import com.google.auto.value.AutoValue;
+import com.google.common.collect.Lists;
+import com.google.common.flogger.FluentLogger;
+import com.google.common.util.concurrent.RateLimiter;
+import com.google.gerrit.entities.Project;
+import com.google.gerrit.server.git.GitRepositoryManager;
+import com.google.gerrit.server.index.change.ChangeIndexer;
+import com.google.gerrit.server.query.change.ChangeData;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+import org.eclipse.jgit.errors.MissingObjectException;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevWalk;
+
+/**
+ * Validates again the current patch sets of existing changes with the ECA API, ignoring the cached
+ * verdicts, stores their new verdicts and re-indexes the changes whose verdict changed.
+ */
+@Singleton
+class EcaRevalidator {
+  private static final FluentLogger logger = FluentLogger.forEnclosingClass();
+
+  @AutoValue
+  abstract static class Result {
+    /** Number of changes validated. */
+    abstract int validated();
+
+    /** Number of changes not satisfying the ECA requirement. */
+    abstract int failing();
+
+    /** Number of changes whose verdict changed and which were re-indexed. */
+    abstract int reindexed();
+
+    /** Number of changes that could not be validated. */
+    abstract int errors();
+
+    static Result create(int validated, int failing, int reindexed, int errors) {
+      return new AutoValue_EcaRevalidator_Result(validated, failing, reindexed, errors);
+    }
+  }
+
+  private final GitRepositoryManager repoManager;
+  private final BaseEclipseCommitValidator validator;
+  private final EcaVerdictStore verdictStore;
+  private final ChangeIndexer indexer;
+
+  @Inject
+  EcaRevalidator(
+      GitRepositoryManager repoManager,
+      ECASignedSubmitRequirement validator,
+      EcaVerdictStore verdictStore,
+      ChangeIndexer indexer) {
+    this.repoManager = repoManager;
+    this.validator = validator;
+    this.verdictStore = verdictStore;
+    this.indexer = indexer;
+  }
+
+  /**
+   * Validates again the changes of a project, in batched requests.
+   *
+   * @param project the project of the changes
+   * @param changes the changes to validate
+   * @param batchSize the maximum number of commits sent in a single request
+   * @param rateLimiter limits the requests sent to the ECA API, if present
+   * @param progress called with the result of each batch
+   * @return the result for all the changes
+   * @throws IOException if the repository of the project could not be read
+   */
+  Result revalidate(
+      Project.NameKey project,
+      List<ChangeData> changes,
+      int batchSize,
+      Optional<RateLimiter> rateLimiter,
+      Consumer<Result> progress)
+      throws IOException {
+    Map<ObjectId, List<ChangeData>> byCommit = new LinkedHashMap<>();
+    for (ChangeData cd : changes) {
+      byCommit.computeIfAbsent(cd.currentPatchSet().commitId(), id -> new ArrayList<>()).add(cd);
+    }
+
+    List<Commit> commits = new ArrayList<>(byCommit.size());
+    int errors = 0;
+    CommitPayload payload = validator.payload(project);
+    try (Repository repo = repoManager.openRepository(project);
+        RevWalk rw = new RevWalk(repo)) {
+      for (Map.Entry<ObjectId, List<ChangeData>> e : byCommit.entrySet()) {
+        try {
+          RevCommit c = rw.parseCommit(e.getKey());
+          commits.add(
+              payload.toRequestCommit(c, c.getAuthorIdent(), c.getCommitterIdent(), true));
+        } catch (MissingObjectException ex) {
+          logger.atWarning().log("Missing commit %s in project %s", e.getKey().name(), project);
+          errors += e.getValue().size();
+        }
+      }
+    }
+
+    if (errors > 0) {
+      progress.accept(Result.create(0, 0, 0, errors));
+    }
+
+    int validated = 0;
+    int failing = 0;
+    int reindexed = 0;
+    for (List<Commit> chunk : Lists.partition(commits, Math.max(1, batchSize))) {
+      rateLimiter.ifPresent(RateLimiter::acquire);
+      int chunkValidated = 0;
+      int chunkFailing = 0;
+      int chunkReindexed = 0;
+      int chunkErrors = 0;
+      ValidationResponse response;
+      try {
+        response = validator.revalidate(project, chunk).get();
+      } catch (ExecutionException e) {
+        logger.atWarning().withCause(e.getCause()).log(
+            "Cannot validate %d commits of project %s", chunk.size(), project);
+        response = null;
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        break;
+      }
+
+      for (Commit c : chunk) {
+        ObjectId id = ObjectId.fromString(c.hash());
+        List<ChangeData> cds = byCommit.get(id);
+        Optional<ValidationResponse> commitResponse =
+            response != null ? response.forCommit(c.hash()) : Optional.empty();
+        if (!commitResponse.isPresent()) {
+          chunkErrors += cds.size();
+          continue;
+        }
+        EcaVerdict verdict = EcaVerdict.fromResponse(commitResponse.get());
+        Optional<EcaVerdict> previous = verdictStore.get(project, id);
+        verdictStore.put(project, id, verdict);
+        chunkValidated += cds.size();
+        if (!verdict.satisfied()) {
+          chunkFailing += cds.size();
+        }
+        // the indexed submittability only changes when the verdict does
+        if (!previous.isPresent() || previous.get().satisfied() != verdict.satisfied()) {
+          for (ChangeData cd : cds) {
+            indexer.index(project, cd.getId());
+          }
+          chunkReindexed += cds.size();
+        }
+      }
+      progress.accept(Result.create(chunkValidated, chunkFailing, chunkReindexed, chunkErrors));
+      validated += chunkValidated;
+      failing += chunkFailing;
+      reindexed += chunkReindexed;
+      errors += chunkErrors;
+    }
+    return Result.create(validated, failing, reindexed, errors);
+  }
+}
@@ -0,0 +1,98 @@
+/**
+ * ***************************************************************************** Copyright (c) 2025
+ * Eclipse Foundation and others. All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0 which accompanies this
+ * distribution, and is available at http://www.eclipse.org/legal/epl-v10.html
+ * *****************************************************************************
+ */
+package org.eclipse.foundation.gerrit.validation;
+
+import com.google.common.base.Enums;
+import com.google.common.flogger.FluentLogger;
+import com.google.gerrit.extensions.annotations.PluginName;
+import com.google.gerrit.server.config.ConfigUtil;
+import com.google.gerrit.server.config.GerritServerConfig;
+import com.google.gerrit.server.config.SitePaths;
+import com.google.inject.AbstractModule;
+import com.google.inject.Provides;
+import com.google.inject.Singleton;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.jgit.lib.Config;
+
+/**
+ * Store of the ECA verdicts shared by the Gerrit nodes of a cluster, behind the caches of each
+ * node, so that a verdict obtained by one node is reused by the others instead of calling the ECA
+ * API again.
+ *
+ * <p>Entries are serialized values grouped by cache name. Implementations must be thread-safe and
+ * treat failures as misses, since the ECA API remains the source of truth.
+ */
+interface EcaSharedStore {
+  /** No shared store: the verdicts stay in the caches of the node. */
+  EcaSharedStore LOCAL =
+      new EcaSharedStore() {
+        @Override
+        public Optional<byte[]> get(String cache, String key) {
+          return Optional.empty();
+        }
+
+        @Override
+        public void put(String cache, String key, byte[] value) {}
+
+        @Override
+        public void remove(String cache, String key) {}
+      };
+
+  Optional<byte[]> get(String cache, String key);
+
+  void put(String cache, String key, byte[] value);
+
+  void remove(String cache, String key);
+
+  enum Type {
+    LOCAL,
+    MEMORY,
+    FILE
+  }
+
+  class EcaSharedStoreModule extends AbstractModule {
+    private static final FluentLogger logger = FluentLogger.forEnclosingClass();
+
+    private static final long DEFAULT_MAX_AGE_MILLIS = TimeUnit.DAYS.toMillis(30);
+
+    @Provides
+    @Singleton
+    EcaSharedStore provideSharedStore(
+        @GerritServerConfig Config cfg, @PluginName String pluginName, SitePaths site) {
+      String value = cfg.getString("plugin", pluginName, "sharedStore");
+      Type type =
+          value == null
+              ? Type.LOCAL
+              : Enums.getIfPresent(Type.class, value.toUpperCase(Locale.US)).or(Type.LOCAL);
+      switch (type) {
+        case MEMORY:
+          return InMemorySharedStore.INSTANCE;
+        case FILE:
+          String dir = cfg.getString("plugin", pluginName, "sharedStoreDirectory");
+          if (dir == null) {
+            logger.atSevere().log("sharedStoreDirectory is not set, the shared store is disabled");
+            return LOCAL;
+          }
+          return new FileSharedStore(
+              site.resolve(dir),
+              ConfigUtil.getTimeUnit(
+                  cfg,
+                  "plugin",
+                  pluginName,
+                  "sharedStoreMaxAge",
+                  DEFAULT_MAX_AGE_MILLIS,
+                  TimeUnit.MILLISECONDS));
+        case LOCAL:
+        default:
+          return LOCAL;
+      }
+    }
+  }
+}
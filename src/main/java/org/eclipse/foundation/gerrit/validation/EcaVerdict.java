@@ -0,0 +1,60 @@
+/**
+ * ***************************************************************************** Copyright (c) 2025
+ * Eclipse Foundation and others. All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0 which accompanies this
+ * distribution, and is available at http://www.eclipse.org/legal/epl-v10.html
+ * *****************************************************************************
+ */
+package org.eclipse.foundation.gerrit.validation;
+
+import com.google.auto.value.AutoValue;
+import com.squareup.moshi.JsonAdapter;
+import com.squareup.moshi.Moshi;
+
+/** The ECA verdict of a patch set commit, computed once and stored by the plugin. */
+@AutoValue
+public abstract class EcaVerdict {
+  public abstract boolean passed();
+
+  public abstract boolean trackedProject();
+
+  /** Time of the validation, in milliseconds since the epoch. */
+  public abstract long timestamp();
+
+  public static JsonAdapter<EcaVerdict> jsonAdapter(Moshi moshi) {
+    return new AutoValue_EcaVerdict.MoshiJsonAdapter(moshi);
+  }
+
+  static EcaVerdict create(boolean passed, boolean trackedProject, long timestamp) {
+    return new AutoValue_EcaVerdict(passed, trackedProject, timestamp);
+  }
+
+  /**
+   * Creates the verdict of a commit from the response of the API for that commit only.
+   *
+   * @param response the response narrowed to the commit
+   * @return the verdict of the commit
+   */
+  static EcaVerdict fromResponse(ValidationResponse response) {
+    return create(
+        response.errorCount() == 0, response.trackedProject(), System.currentTimeMillis());
+  }
+
+  /** Whether the ECA requirement is satisfied, failures only matter for tracked projects. */
+  public boolean satisfied() {
+    return passed() || !trackedProject();
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder builder = new StringBuilder();
+    builder.append("EcaVerdict [passed()=");
+    builder.append(passed());
+    builder.append(", trackedProject()=");
+    builder.append(trackedProject());
+    builder.append(", timestamp()=");
+    builder.append(timestamp());
+    builder.append("]");
+    return builder.toString();
+  }
+}
@@ -0,0 +1,256 @@
+/**
+ * ***************************************************************************** Copyright (c) 2025
+ * Eclipse Foundation and others. All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0 which accompanies this
+ * distribution, and is available at http://www.eclipse.org/legal/epl-v10.html
+ * *****************************************************************************
+ */
+package org.eclipse.foundation.gerrit.validation;
+
+import com.google.auto.value.AutoValue;
+import com.google.common.flogger.FluentLogger;
+import com.google.gerrit.entities.Change;
+import com.google.gerrit.entities.Project;
+import com.google.gerrit.extensions.annotations.PluginName;
+import com.google.gerrit.extensions.common.ChangeInfo;
+import com.google.gerrit.extensions.events.LifecycleListener;
+import com.google.gerrit.extensions.events.RevisionCreatedListener;
+import com.google.gerrit.server.config.GerritServerConfig;
+import com.google.gerrit.server.git.WorkQueue;
+import com.google.gerrit.server.index.change.ChangeIndexer;
+import com.google.gerrit.server.query.change.ChangeData;
+import com.google.gerrit.server.util.ManualRequestContext;
+import com.google.gerrit.server.util.OneOffRequestContext;
+import com.google.inject.Inject;
+import com.google.inject.Provider;
+import com.google.inject.Singleton;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.eclipse.jgit.lib.Config;
+
+/**
+ * Computes the ECA verdicts of new patch sets in the background, whichever way they were created,
+ * and re-indexes their changes, so that the submit requirement and the queries never wait for the
+ * ECA API.
+ *
+ * <p>Enabled with {@code precomputeVerdicts}. The patch sets whose verdict is being computed are
+ * then reported as pending by the submit requirement, which blocks their submission, until their
+ * verdict is computed. Pending changes are validated together, with one request per project. Once
+ * the attempts are exhausted, the submit requirement computes the verdict on demand again.
+ */
+@Singleton
+class EcaVerdictPrecomputer implements RevisionCreatedListener, LifecycleListener {
+  private static final FluentLogger logger = FluentLogger.forEnclosingClass();
+
+  /** Delay gathering the patch sets created together, e.g. by a rebase of a series. */
+  private static final long GATHER_MILLIS = 500;
+
+  private static final long RETRY_DELAY_SECS = 60;
+  private static final int MAX_ATTEMPTS = 10;
+
+  @AutoValue
+  abstract static class Key {
+    abstract Project.NameKey project();
+
+    abstract Change.Id change();
+
+    static Key create(Project.NameKey project, Change.Id change) {
+      return new AutoValue_EcaVerdictPrecomputer_Key(project, change);
+    }
+  }
+
+  private final boolean enabled;
+  private final WorkQueue workQueue;
+  private final EcaProjectConfig.Factory projectConfigs;
+  private final Provider<ECASignedSubmitRequirement> requirement;
+  private final EcaVerdictStore verdictStore;
+  private final ChangeData.Factory changeDataFactory;
+  private final ChangeIndexer indexer;
+  private final OneOffRequestContext requestContext;
+
+  /** The changes waiting for their verdict, with the number of attempts made so far. */
+  private final Map<Key, Integer> pending = new ConcurrentHashMap<>();
+
+  /**
+   * The changes whose verdict is being computed, from their scheduling until their verdict is
+   * computed or the attempts are exhausted, including while they wait for a retry.
+   */
+  private final Set<Key> jobs = ConcurrentHashMap.newKeySet();
+
+  private final AtomicBoolean scheduled = new AtomicBoolean();
+
+  private ScheduledExecutorService executor;
+
+  @Inject
+  EcaVerdictPrecomputer(
+      @GerritServerConfig Config cfg,
+      @PluginName String pluginName,
+      WorkQueue workQueue,
+      EcaProjectConfig.Factory projectConfigs,
+      Provider<ECASignedSubmitRequirement> requirement,
+      EcaVerdictStore verdictStore,
+      ChangeData.Factory changeDataFactory,
+      ChangeIndexer indexer,
+      OneOffRequestContext requestContext) {
+    this.enabled = cfg.getBoolean("plugin", pluginName, "precomputeVerdicts", false);
+    this.workQueue = workQueue;
+    this.projectConfigs = projectConfigs;
+    this.requirement = requirement;
+    this.verdictStore = verdictStore;
+    this.changeDataFactory = changeDataFactory;
+    this.indexer = indexer;
+    this.requestContext = requestContext;
+  }
+
+  @Override
+  public synchronized void start() {
+    if (enabled) {
+      executor = workQueue.createQueue(1, "ECA-Precompute");
+    }
+  }
+
+  @Override
+  public synchronized void stop() {
+    if (executor != null) {
+      executor.shutdownNow();
+      executor = null;
+    }
+  }
+
+  /** Returns whether the verdicts are computed in the background rather than on demand. */
+  boolean isEnabled() {
+    return enabled;
+  }
+
+  @Override
+  public void onRevisionCreated(RevisionCreatedListener.Event event) {
+    if (!enabled) {
+      return;
+    }
+    ChangeInfo change = event.getChange();
+    Project.NameKey project = Project.nameKey(change.project);
+    if (projectConfigs.get(project).map(EcaProjectConfig::enabled).orElse(false)) {
+      schedule(project, Change.id(change._number));
+    }
+  }
+
+  /**
+   * Queues the computation of the verdict of the current patch set of a change.
+   *
+   * @param project the project of the change
+   * @param change the change
+   */
+  void schedule(Project.NameKey project, Change.Id change) {
+    Key key = Key.create(project, change);
+    jobs.add(key);
+    if (pending.putIfAbsent(key, 0) == null) {
+      scheduleRun(GATHER_MILLIS);
+    }
+  }
+
+  /**
+   * Returns whether the verdict of the current patch set of a change is being computed in the
+   * background, including while it waits for a retry.
+   *
+   * @param project the project of the change
+   * @param change the change
+   */
+  boolean isPending(Project.NameKey project, Change.Id change) {
+    return jobs.contains(Key.create(project, change));
+  }
+
+  private synchronized void scheduleRun(long delayMillis) {
+    if (executor != null && scheduled.compareAndSet(false, true)) {
+      executor.schedule(this::run, delayMillis, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  private void run() {
+    scheduled.set(false);
+    Map<Key, Integer> batch = new LinkedHashMap<>();
+    for (Key key : new ArrayList<>(pending.keySet())) {
+      Integer attempts = pending.remove(key);
+      if (attempts != null) {
+        batch.put(key, attempts);
+      }
+    }
+    if (batch.isEmpty()) {
+      return;
+    }
+
+    int computed = 0;
+    Map<Key, Integer> retries = new LinkedHashMap<>();
+    try (ManualRequestContext ctx = requestContext.open()) {
+      List<ChangeData> changes = new ArrayList<>(batch.size());
+      for (Key key : batch.keySet()) {
+        try {
+          ChangeData cd = changeDataFactory.create(key.project(), key.change());
+          if (cd.change().isNew()) {
+            changes.add(cd);
+          } else {
+            jobs.remove(key);
+          }
+        } catch (RuntimeException e) {
+          logger.atWarning().withCause(e).log("Cannot load change %s", key.change());
+          jobs.remove(key);
+        }
+      }
+
+      Map<Change.Id, Boolean> results = requirement.get().evaluate(changes, true);
+      for (ChangeData cd : changes) {
+        Key key = Key.create(cd.project(), cd.getId());
+        // excluded changes have no stored verdict but are satisfied
+        if (results.getOrDefault(cd.getId(), false)
+            || verdictStore.get(cd.project(), cd.currentPatchSet().commitId()).isPresent()) {
+          jobs.remove(key);
+          // the indexed submittability now reflects the verdict
+          indexer.index(cd.project(), cd.getId());
+          computed++;
+          continue;
+        }
+        int attempts = batch.get(key) + 1;
+        if (attempts < MAX_ATTEMPTS) {
+          retries.put(key, attempts);
+        } else {
+          // the submit requirement computes the verdict on demand from now on
+          logger.atWarning().log(
+              "Giving up computing the ECA verdict of change %s in project %s",
+              key.change(), key.project());
+          jobs.remove(key);
+        }
+      }
+    } catch (Exception e) {
+      logger.atWarning().withCause(e).log("Cannot compute the ECA verdicts of new patch sets");
+      batch.forEach((key, attempts) -> retries.put(key, attempts + 1));
+    }
+    logger.atFine().log("Computed the ECA verdicts of %d of %d changes", computed, batch.size());
+    if (!retries.isEmpty()) {
+      retryLater(retries);
+    }
+  }
+
+  /** Queues again the changes whose verdict could not be computed, e.g. during an API outage. */
+  private synchronized void retryLater(Map<Key, Integer> retries) {
+    if (executor != null) {
+      executor.schedule(
+          () -> {
+            retries.forEach(pending::putIfAbsent);
+            scheduleRun(0);
+          },
+          RETRY_DELAY_SECS,
+          TimeUnit.SECONDS);
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "ECA verdict precomputation";
+  }
+}
@@ -0,0 +1,135 @@
+/**
+ * ***************************************************************************** Copyright (c) 2025
+ * Eclipse Foundation and others. All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0 which accompanies this
+ * distribution, and is available at http://www.eclipse.org/legal/epl-v10.html
+ * *****************************************************************************
+ */
+package org.eclipse.foundation.gerrit.validation;
+
+import com.google.common.cache.Cache;
+import com.google.gerrit.entities.Project;
+import com.google.gerrit.extensions.annotations.PluginName;
+import com.google.gerrit.server.cache.CacheModule;
+import com.google.gerrit.server.cache.serialize.StringCacheSerializer;
+import com.google.gerrit.server.config.ConfigUtil;
+import com.google.gerrit.server.config.GerritServerConfig;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.google.inject.name.Named;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.jgit.lib.AnyObjectId;
+import org.eclipse.jgit.lib.Config;
+
+/**
+ * Persistent store of the ECA verdicts of patch set commits.
+ *
+ * <p>Verdicts are recorded when commits are uploaded, so that the submit requirement and the
+ * {@code has:signed_eca-validation} predicate are answered by a local lookup instead of a call to
+ * the ECA API.
+ *
+ * <p>Verdicts are only reused for the TTLs of the identity cache, {@code identityCachePassTtl} and
+ * {@code identityCacheFailTtl}, since the contributor may have signed the ECA, or had it revoked,
+ * in the meantime.
+ */
+@Singleton
+class EcaVerdictStore {
+  static final String CACHE_NAME = "eca_verdicts";
+
+  static class EcaVerdictStoreModule extends CacheModule {
+    @Override
+    protected void configure() {
+      persist(CACHE_NAME, String.class, EcaVerdict.class)
+          .version(1)
+          .keySerializer(StringCacheSerializer.INSTANCE)
+          .valueSerializer(new JsonCacheSerializer<>(EcaVerdict.class))
+          .diskLimit(128 << 20)
+          .maximumWeight(64 << 10);
+    }
+  }
+
+  private final SharedCache<EcaVerdict> verdicts;
+  private final long passTtlMillis;
+  private final long failTtlMillis;
+
+  @Inject
+  EcaVerdictStore(
+      @Named(CACHE_NAME) Cache<String, EcaVerdict> verdicts,
+      EcaSharedStore sharedStore,
+      @GerritServerConfig Config cfg,
+      @PluginName String pluginName) {
+    this.verdicts = new SharedCache<>(CACHE_NAME, verdicts, sharedStore, EcaVerdict.class);
+    this.passTtlMillis =
+        ConfigUtil.getTimeUnit(
+                cfg,
+                "plugin",
+                pluginName,
+                "identityCachePassTtl",
+                EcaIdentityCache.DEFAULT_PASS_TTL_SECS,
+                TimeUnit.SECONDS)
+            * 1000;
+    this.failTtlMillis =
+        ConfigUtil.getTimeUnit(
+                cfg,
+                "plugin",
+                pluginName,
+                "identityCacheFailTtl",
+                EcaIdentityCache.DEFAULT_FAIL_TTL_SECS,
+                TimeUnit.SECONDS)
+            * 1000;
+  }
+
+  /**
+   * Returns the stored verdict of a commit, unless it has expired.
+   *
+   * @param project the project of the commit
+   * @param commitId the commit
+   * @return the verdict of the commit, or empty if it must be validated again
+   */
+  Optional<EcaVerdict> get(Project.NameKey project, AnyObjectId commitId) {
+    String key = key(project, commitId);
+    EcaVerdict verdict = verdicts.getIfPresent(key);
+    if (verdict != null
+        && System.currentTimeMillis() - verdict.timestamp()
+            > (verdict.satisfied() ? passTtlMillis : failTtlMillis)) {
+      verdicts.invalidate(key);
+      return Optional.empty();
+    }
+    return Optional.ofNullable(verdict);
+  }
+
+  /**
+   * Forgets the verdict of a commit if it is failing, e.g. when its author just signed the ECA, so
+   * that the commit is validated again rather than blocked until the verdict expires.
+   *
+   * @param project the project of the commit
+   * @param commitId the commit
+   */
+  void evictFailing(Project.NameKey project, AnyObjectId commitId) {
+    String key = key(project, commitId);
+    EcaVerdict verdict = verdicts.getIfPresent(key);
+    if (verdict != null && !verdict.satisfied()) {
+      verdicts.invalidate(key);
+    }
+  }
+
+  /**
+   * Forgets the verdict of a commit, e.g. when its author revoked the ECA, so that the commit is
+   * validated again rather than accepted until the verdict expires.
+   *
+   * @param project the project of the commit
+   * @param commitId the commit
+   */
+  void evict(Project.NameKey project, AnyObjectId commitId) {
+    verdicts.invalidate(key(project, commitId));
+  }
+
+  void put(Project.NameKey project, AnyObjectId commitId, EcaVerdict verdict) {
+    verdicts.put(key(project, commitId), verdict);
+  }
+
+  private static String key(Project.NameKey project, AnyObjectId commitId) {
+    return commitId.name() + ":" + project.get();
+  }
+}
@@ -9,25 +9,32 @@
  */
 package org.eclipse.foundation.gerrit.validation;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
 import com.google.common.flogger.FluentLogger;
 import com.google.gerrit.entities.Project;
 import com.google.gerrit.extensions.annotations.PluginName;
-import com.google.gerrit.server.config.PluginConfigFactory;
 import com.google.gerrit.server.events.CommitReceivedEvent;
+import com.google.gerrit.server.git.GitRepositoryManager;
 import com.google.gerrit.server.git.validators.CommitValidationException;
 import com.google.gerrit.server.git.validators.CommitValidationListener;
 import com.google.gerrit.server.git.validators.CommitValidationMessage;
-import com.google.gerrit.server.project.ProjectCache;
-import com.google.gerrit.server.project.ProjectState;
+import com.google.gerrit.server.util.MagicBranch;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ExecutionException;
 import java.util.stream.Collectors;
 import org.eclipse.foundation.gerrit.validation.CommitStatus.CommitStatusMessage;
 import org.eclipse.jgit.lib.PersonIdent;
+import org.eclipse.jgit.lib.Repository;
 import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevWalk;
 
 /**
  * The EclipseCommitValidationListener implements CommitValidationListener to ensure that project
@@ -45,17 +52,37 @@ import org.eclipse.jgit.revwalk.RevCommit;
 public class EclipseCommitValidationListener extends BaseEclipseCommitValidator
     implements CommitValidationListener {
   private static final FluentLogger logger = FluentLogger.forEnclosingClass();
-  private static final String ECA_DOCUMENTATION = "Please see http://wiki.eclipse.org/ECA";
+  static final String ECA_DOCUMENTATION = "Please see http://wiki.eclipse.org/ECA";
+  private final GitRepositoryManager repoManager;
+  private final EcaVerdictStore verdictStore;
+  private final EcaExclusions.Checker exclusionChecker;
+  private final EcaDeferredValidator deferredValidator;
 
-  private final ProjectCache projectCache;
+  /**
+   * The commits of ongoing pushes, validated together in as few API requests as possible. The
+   * batches are scoped to the walk of a single {@code ReceiveCommits} run and dropped with it, so
+   * that the responses of a push, failing ones included, are never replayed to a later push.
+   */
+  private final Cache<RevWalk, Cache<PushValidationBatch.Key, PushValidationBatch>> batches =
+      CacheBuilder.newBuilder().weakKeys().build();
 
   @Inject
   public EclipseCommitValidationListener(
       @PluginName String pluginName,
-      ProjectCache projectCache,
-      PluginConfigFactory pluginCfgFactory) {
-    super(pluginCfgFactory, pluginName);
-    this.projectCache = projectCache;
+      EcaProjectConfig.Factory projectConfigs,
+      EcaBackend backend,
+      EcaIdentityCache identityCache,
+      InFlightValidations inFlight,
+      EcaMetrics metrics,
+      GitRepositoryManager repoManager,
+      EcaVerdictStore verdictStore,
+      EcaExclusions.Checker exclusionChecker,
+      EcaDeferredValidator deferredValidator) {
+    super(projectConfigs, pluginName, backend, identityCache, inFlight, metrics);
+    this.repoManager = repoManager;
+    this.verdictStore = verdictStore;
+    this.exclusionChecker = exclusionChecker;
+    this.deferredValidator = deferredValidator;
   }
 
   /**
@@ -70,28 +97,67 @@ public class EclipseCommitValidationListener extends BaseEclipseCommitValidator
     Project.NameKey project = receiveEvent.project.getNameKey();
 
     // Check whether the validation is enabled for this project
-    if (!isEnabledForProject(project)) {
+    Optional<EcaProjectConfig> cfg = projectConfigs.get(project);
+    if (!cfg.isPresent()) {
+      logger.atSevere().log(
+          "Failed to check if %s is enabled for project %s: Project not found",
+          pluginName, project.get());
+      return messages;
+    }
+    if (!cfg.get().enabled()) {
       logger.atFine().log(
           "Plugin %s is not enabled for project %s: Skip validation", pluginName, project.get());
       return messages;
     }
 
-    // retrieve information about the current commit
     RevCommit commit = receiveEvent.commit;
-    PersonIdent authorIdent = commit.getAuthorIdent();
-    PersonIdent committerIdent = commit.getCommitterIdent();
+    metrics.recordEvaluation(EcaMetrics.Caller.LISTENER);
+    Optional<String> exclusion = excludedBy(receiveEvent, cfg.get(), commit);
+    if (exclusion.isPresent()) {
+      metrics.recordExcluded();
+      if (summarizedBatch(receiveEvent, cfg.get()).isPresent()) {
+        // counted in the summary of the push
+        return messages;
+      }
+      addCommitHeader(messages, commit);
+      return addSuccessMessage(
+          messages,
+          String.format("This commit is excluded from Eclipse validation by %s.", exclusion.get()));
+    }
+    if (cfg.get().deferredValidation()
+        && MagicBranch.isMagicBranch(receiveEvent.command.getRefName())
+        && !verdictStore.get(project, commit).map(EcaVerdict::passed).orElse(false)
+        && deferredValidator.add(project, commit)) {
+      metrics.recordDeferred();
+      return addSuccessMessage(
+          messages,
+          String.format(
+              "ECA validation of commit %s is deferred, its change is not submittable until then.",
+              commit.abbreviate(8).name()));
+    }
+    ValidationResponse response;
+    try {
+      response = validateOrDegrade(receiveEvent, cfg.get());
+    } catch (CommitValidationException e) {
+      metrics.recordError();
+      throw e;
+    }
+    metrics.recordOutcome(response);
 
-    addSeparatorLine(messages);
-    messages.add(
-        new CommitValidationMessage(
-            String.format("Reviewing commit: %1$s", commit.abbreviate(8).name()), false));
-    messages.add(
-        new CommitValidationMessage(
-            String.format(
-                "Authored by: %1$s <%2$s>", authorIdent.getName(), authorIdent.getEmailAddress()),
-            false));
-    addEmptyLine(messages);
-    ValidationResponse response = validate(project, authorIdent, committerIdent, commit);
+    // large pushes only report a summary, and the details of their failing commits
+    Optional<PushValidationBatch> batch = summarizedBatch(receiveEvent, cfg.get());
+    if (batch.isPresent() && !(response.errorCount() > 0 && response.trackedProject())) {
+      if (!batch.get().contains(commit)) {
+        // already validated or excluded, counted in the summary of the push
+        return messages;
+      }
+      if (batch.get().hasResponse(commit)) {
+        batch.get().takeSummary().ifPresent(lines -> addSummary(messages, lines));
+        return messages;
+      }
+    }
+
+    addCommitHeader(messages, commit);
     for (CommitStatus c : response.commits().values()) {
       messages.addAll(
           c.messages().stream()
@@ -117,32 +183,183 @@ public class EclipseCommitValidationListener extends BaseEclipseCommitValidator
     return addSuccessMessage(messages, "This commit passes Eclipse validation.");
   }
 
+  /**
+   * Validate the commit of the event and store its verdict, applying the outage policy of the
+   * project if the ECA API is unavailable.
+   */
+  private ValidationResponse validateOrDegrade(
+      CommitReceivedEvent receiveEvent, EcaProjectConfig cfg) throws CommitValidationException {
+    Project.NameKey project = receiveEvent.project.getNameKey();
+    RevCommit commit = receiveEvent.commit;
+    if (cfg.skipKnownCommits()) {
+      Optional<EcaVerdict> known = verdictStore.get(project, commit);
+      metrics.recordCacheLookup(EcaVerdictStore.CACHE_NAME, known.isPresent());
+      // failing verdicts are checked again, the contributor may have signed the ECA since
+      if (known.isPresent() && known.get().passed()) {
+        logger.atFine().log("Commit %s was already validated in %s", commit.name(), project);
+        return alreadyValidated(commit, known.get());
+      }
+    }
+    try {
+      ValidationResponse response = validateInBatch(receiveEvent, cfg);
+      // keep the verdict so that the submit requirement does not need to ask the API again
+      verdictStore.put(project, commit, EcaVerdict.fromResponse(response));
+      return response;
+    } catch (CommitValidationException e) {
+      if (!EcaCircuitBreaker.isOpenCircuit(e)) {
+        throw e;
+      }
+      // degraded verdicts are not stored, the commit is validated again once the API is back
+      return degradedResponse(
+              project,
+              getRequestCommit(
+                  commit, commit.getAuthorIdent(), commit.getCommitterIdent(), false))
+          .orElseThrow(() -> e);
+    }
+  }
+
+  /**
+   * Validate the commit of the event together with the other new commits of the same push, unless
+   * batching is disabled for the project.
+   */
+  private ValidationResponse validateInBatch(
+      CommitReceivedEvent receiveEvent, EcaProjectConfig cfg) throws CommitValidationException {
+    Project.NameKey project = receiveEvent.project.getNameKey();
+    RevCommit commit = receiveEvent.commit;
+    if (cfg.maxBatchSize() > 1) {
+      try {
+        PushValidationBatch batch =
+            batchesOf(receiveEvent)
+                .get(
+                    PushValidationBatch.Key.create(receiveEvent),
+                    () -> {
+                      try (Repository repo = repoManager.openRepository(project)) {
+                        return PushValidationBatch.create(
+                            repo,
+                            receiveEvent,
+                            cfg.maxBatchSize(),
+                            cfg.skipKnownCommits(),
+                            id ->
+                                verdictStore
+                                    .get(project, id)
+                                    .map(EcaVerdict::passed)
+                                    .orElse(false),
+                            c -> excludedBy(receiveEvent, cfg, c).isPresent());
+                      }
+                    });
+        Optional<ValidationResponse> response =
+            batch.responseFor(
+                this, receiveEvent, cfg.maxConcurrentRequests(), cfg.validationDeadline());
+        if (response.isPresent()) {
+          return response.get();
+        }
+      } catch (ExecutionException e) {
+        logger.atSevere().withCause(e.getCause()).log(
+            "Cannot collect the commits pushed to %s in project %s, validating %s alone",
+            receiveEvent.command.getRefName(), project, commit.name());
+      }
+    }
+
+    return validate(
+        project,
+        Collections.singletonList(
+            cfg.payload()
+                .toRequestCommit(
+                    commit,
+                    commit.getAuthorIdent(),
+                    commit.getCommitterIdent(),
+                    commit.equals(receiveEvent.command.getNewId()))));
+  }
+
+  /**
+   * Returns the batch of the push of the event if the push is reported as a summary, i.e. if it
+   * has at least {@code summaryThreshold} new commits.
+   */
+  private Optional<PushValidationBatch> summarizedBatch(
+      CommitReceivedEvent receiveEvent, EcaProjectConfig cfg) {
+    if (cfg.summaryThreshold() <= 0) {
+      return Optional.empty();
+    }
+    Cache<PushValidationBatch.Key, PushValidationBatch> pushBatches =
+        batches.getIfPresent(receiveEvent.revWalk);
+    PushValidationBatch batch =
+        pushBatches != null
+            ? pushBatches.getIfPresent(PushValidationBatch.Key.create(receiveEvent))
+            : null;
+    return batch != null && batch.size() >= cfg.summaryThreshold()
+        ? Optional.of(batch)
+        : Optional.empty();
+  }
+
+  /** Returns the batches of the {@code ReceiveCommits} run of the event. */
+  private Cache<PushValidationBatch.Key, PushValidationBatch> batchesOf(
+      CommitReceivedEvent receiveEvent) {
+    return batches
+        .asMap()
+        .computeIfAbsent(receiveEvent.revWalk, rw -> CacheBuilder.newBuilder().build());
+  }
+
+  /** Returns the exclusion rule of the project matching a commit of the push, if any. */
+  private Optional<String> excludedBy(
+      CommitReceivedEvent receiveEvent, EcaProjectConfig cfg, RevCommit commit) {
+    return exclusionChecker.excludedBy(
+        cfg.exclusions(),
+        commit::getFooterLines,
+        commit.getAuthorIdent(),
+        commit.getCommitterIdent(),
+        receiveEvent.refName,
+        receiveEvent.user);
+  }
+
+  /** The response reported for a commit whose stored verdict is a pass. */
+  private static ValidationResponse alreadyValidated(RevCommit commit, EcaVerdict verdict) {
+    CommitStatusMessage message =
+        CommitStatusMessage.create(
+            0,
+            String.format(
+                "Commit %s was already validated on %s.",
+                commit.abbreviate(8).name(), Instant.ofEpochMilli(verdict.timestamp())));
+    return ValidationResponse.builder()
+        .passed(true)
+        .errorCount(0)
+        .time(Instant.ofEpochMilli(verdict.timestamp()).toString())
+        .commits(
+            Collections.singletonMap(
+                commit.name(),
+                CommitStatus.create(
+                    ImmutableList.of(message), ImmutableList.of(), ImmutableList.of())))
+        .trackedProject(verdict.trackedProject())
+        .build();
+  }
+
   private static List<CommitValidationMessage> addSuccessMessage(
       List<CommitValidationMessage> messages, String message) {
     messages.add(new CommitValidationMessage(message, false));
     return messages;
   }
 
-  /**
-   * Check whether ECA plugin is enabled for this project.
-   *
-   * @param project to check
-   * @return true if ECA check is enabled for this project or any parent projects in project
-   *     hierarchy, false otherwise.
-   */
-  private boolean isEnabledForProject(Project.NameKey project) {
-    Optional<ProjectState> projectState = projectCache.get(project);
-    if (!projectState.isPresent()) {
-      logger.atSevere().log(
-          "Failed to check if %s is enabled for project %s: Project not found",
-          pluginName, project.get());
-      return false;
+  private static void addCommitHeader(List<CommitValidationMessage> messages, RevCommit commit) {
+    PersonIdent authorIdent = commit.getAuthorIdent();
+    addSeparatorLine(messages);
+    messages.add(
+        new CommitValidationMessage(
+            String.format("Reviewing commit: %1$s", commit.abbreviate(8).name()), false));
+    messages.add(
+        new CommitValidationMessage(
+            String.format(
+                "Authored by: %1$s <%2$s>", authorIdent.getName(), authorIdent.getEmailAddress()),
+            false));
+    addEmptyLine(messages);
+  }
+
+  private static void addSummary(List<CommitValidationMessage> messages, List<String> lines) {
+    addSeparatorLine(messages);
+    for (String line : lines) {
+      messages.add(new CommitValidationMessage(line, false));
     }
-    return "true"
-        .equals(
-            pluginCfgFactory
-                .getFromProjectConfigWithInheritance(projectState.get(), pluginName)
-                .getString("enabled", "false"));
+    addEmptyLine(messages);
+    messages.add(
+        new CommitValidationMessage("Details are only reported for the failing commits.", false));
   }
 
   private static void addSeparatorLine(List<CommitValidationMessage> messages) {
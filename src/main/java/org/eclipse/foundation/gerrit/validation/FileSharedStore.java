@@ -0,0 +1,90 @@
+/**
+ * ***************************************************************************** Copyright (c) 2025
+ * Eclipse Foundation and others. All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0 which accompanies this
+ * distribution, and is available at http://www.eclipse.org/legal/epl-v10.html
+ * *****************************************************************************
+ */
+package org.eclipse.foundation.gerrit.validation;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.common.flogger.FluentLogger;
+import com.google.common.hash.Hashing;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Optional;
+
+/**
+ * Shared store keeping each entry in its own file of a directory shared by the nodes, e.g. on NFS.
+ *
+ * <p>Entries are written to a temporary file first and then moved in place, so that readers never
+ * see a partial entry. Entries older than the maximum age are ignored and deleted when read.
+ */
+final class FileSharedStore implements EcaSharedStore {
+  private static final FluentLogger logger = FluentLogger.forEnclosingClass();
+
+  private final Path directory;
+  private final long maxAgeMillis;
+
+  FileSharedStore(Path directory, long maxAgeMillis) {
+    this.directory = directory;
+    this.maxAgeMillis = maxAgeMillis;
+  }
+
+  @Override
+  public Optional<byte[]> get(String cache, String key) {
+    Path file = path(cache, key);
+    try {
+      if (maxAgeMillis > 0
+          && System.currentTimeMillis() - Files.getLastModifiedTime(file).toMillis()
+              > maxAgeMillis) {
+        Files.deleteIfExists(file);
+        return Optional.empty();
+      }
+      return Optional.of(Files.readAllBytes(file));
+    } catch (NoSuchFileException e) {
+      return Optional.empty();
+    } catch (IOException e) {
+      logger.atWarning().withCause(e).log("Cannot read shared ECA verdict %s", file);
+      return Optional.empty();
+    }
+  }
+
+  @Override
+  public void put(String cache, String key, byte[] value) {
+    Path file = path(cache, key);
+    try {
+      Files.createDirectories(file.getParent());
+      Path tmp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+      try {
+        Files.write(tmp, value);
+        Files.move(
+            tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+      } finally {
+        Files.deleteIfExists(tmp);
+      }
+    } catch (IOException e) {
+      logger.atWarning().withCause(e).log("Cannot write shared ECA verdict %s", file);
+    }
+  }
+
+  @Override
+  public void remove(String cache, String key) {
+    Path file = path(cache, key);
+    try {
+      Files.deleteIfExists(file);
+    } catch (IOException e) {
+      logger.atWarning().withCause(e).log("Cannot delete shared ECA verdict %s", file);
+    }
+  }
+
+  private Path path(String cache, String key) {
+    // keys contain project names and emails, which are not safe file names
+    String name = Hashing.sha256().hashString(key, UTF_8).toString();
+    return directory.resolve(cache).resolve(name.substring(0, 2)).resolve(name.substring(2));
+  }
+}
@@ -0,0 +1,57 @@
+/**
+ * ***************************************************************************** Copyright (c) 2025
+ * Eclipse Foundation and others. All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0 which accompanies this
+ * distribution, and is available at http://www.eclipse.org/legal/epl-v10.html
+ * *****************************************************************************
+ */
+package org.eclipse.foundation.gerrit.validation;
+
+import com.google.auto.value.AutoValue;
+import com.squareup.moshi.JsonAdapter;
+import com.squareup.moshi.Moshi;
+import java.util.List;
+import org.eclipse.foundation.gerrit.validation.CommitStatus.CommitStatusMessage;
+
+/**
+ * The outcome of the last ECA validation of the commits of an identity, as stored in the identity
+ * cache.
+ */
+@AutoValue
+public abstract class IdentityVerdict {
+  public abstract boolean passed();
+
+  /** Time of the validation, in milliseconds since the epoch. */
+  public abstract long timestamp();
+
+  public abstract List<CommitStatusMessage> messages();
+
+  public abstract List<CommitStatusMessage> errors();
+
+  public static JsonAdapter<IdentityVerdict> jsonAdapter(Moshi moshi) {
+    return new AutoValue_IdentityVerdict.MoshiJsonAdapter(moshi);
+  }
+
+  static IdentityVerdict create(
+      boolean passed,
+      long timestamp,
+      List<CommitStatusMessage> messages,
+      List<CommitStatusMessage> errors) {
+    return new AutoValue_IdentityVerdict(passed, timestamp, messages, errors);
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder builder = new StringBuilder();
+    builder.append("IdentityVerdict [passed()=");
+    builder.append(passed());
+    builder.append(", timestamp()=");
+    builder.append(timestamp());
+    builder.append(", messages()=");
+    builder.append(messages());
+    builder.append(", errors()=");
+    builder.append(errors());
+    builder.append("]");
+    return builder.toString();
+  }
+}
@@ -0,0 +1,121 @@
+/**
+ * ***************************************************************************** Copyright (c) 2025
+ * Eclipse Foundation and others. All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0 which accompanies this
+ * distribution, and is available at http://www.eclipse.org/legal/epl-v10.html
+ * *****************************************************************************
+ */
+package org.eclipse.foundation.gerrit.validation;
+
+import com.google.common.flogger.FluentLogger;
+import com.google.gerrit.entities.Project;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * The validation requests currently sent to the ECA API, shared by the commit validation listener
+ * and the submit requirement.
+ *
+ * <p>When a commit is asked for while a request containing it is still in flight, for example
+ * because CI and reviewers load the same change at the same time, the caller waits for that
+ * request instead of sending a new one.
+ */
+@Singleton
+class InFlightValidations {
+  private static final FluentLogger logger = FluentLogger.forEnclosingClass();
+
+  private final EcaMetrics metrics;
+  private final ConcurrentMap<String, CompletableFuture<ValidationResponse>> inFlight =
+      new ConcurrentHashMap<>();
+
+  @Inject
+  InFlightValidations(EcaMetrics metrics) {
+    this.metrics = metrics;
+  }
+
+  /**
+   * Validates the commits, sending only those that are not already part of a request in flight.
+   *
+   * @param project the project the commits belong to
+   * @param commits the request representation of the commits to validate
+   * @param request sends a validation request for the given commits
+   * @return the future response, containing a status for each of the commits
+   */
+  CompletableFuture<ValidationResponse> validate(
+      Project.NameKey project,
+      List<Commit> commits,
+      Function<List<Commit>, CompletableFuture<ValidationResponse>> request) {
+    CompletableFuture<ValidationResponse> sent = new CompletableFuture<>();
+    List<Commit> toSend = new ArrayList<>(commits.size());
+    Map<String, CompletableFuture<ValidationResponse>> shared = new LinkedHashMap<>();
+    for (Commit c : commits) {
+      CompletableFuture<ValidationResponse> existing = inFlight.putIfAbsent(key(project, c), sent);
+      if (existing == null) {
+        toSend.add(c);
+      } else {
+        shared.put(c.hash(), existing);
+        metrics.recordCoalescedCommit();
+      }
+    }
+
+    if (!toSend.isEmpty()) {
+      CompletableFuture<ValidationResponse> pending;
+      try {
+        pending = request.apply(toSend);
+      } catch (RuntimeException e) {
+        // the request was never sent, the commits must not wait for it
+        toSend.forEach(c -> inFlight.remove(key(project, c), sent));
+        sent.completeExceptionally(e);
+        return sent;
+      }
+      pending.whenComplete(
+          (response, failure) -> {
+            toSend.forEach(c -> inFlight.remove(key(project, c), sent));
+            if (failure != null) {
+              sent.completeExceptionally(failure);
+            } else {
+              sent.complete(response);
+            }
+          });
+    }
+    if (shared.isEmpty()) {
+      return sent;
+    }
+
+    logger.atFine().log(
+        "Waiting for %d commits of project %s already being validated", shared.size(), project);
+    toSend.forEach(c -> shared.put(c.hash(), sent));
+    return CompletableFuture.allOf(shared.values().toArray(new CompletableFuture<?>[0]))
+        .thenApply(v -> combine(commits, shared));
+  }
+
+  /** The statuses of the commits, each taken from the response of the request it was sent in. */
+  private static ValidationResponse combine(
+      List<Commit> commits, Map<String, CompletableFuture<ValidationResponse>> responses) {
+    Map<String, CommitStatus> statuses = new LinkedHashMap<>();
+    boolean tracked = false;
+    String time = null;
+    for (Commit c : commits) {
+      ValidationResponse response = responses.get(c.hash()).join();
+      CommitStatus status = response.commits().get(c.hash());
+      if (status != null) {
+        statuses.put(c.hash(), status);
+      }
+      tracked |= response.trackedProject();
+      time = response.time();
+    }
+    return BaseEclipseCommitValidator.merge(statuses, tracked, time);
+  }
+
+  private static String key(Project.NameKey project, Commit commit) {
+    return commit.hash() + ":" + project.get();
+  }
+}
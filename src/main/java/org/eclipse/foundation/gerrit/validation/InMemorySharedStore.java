@@ -0,0 +1,42 @@
+/**
+ * ***************************************************************************** Copyright (c) 2025
+ * Eclipse Foundation and others. All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0 which accompanies this
+ * distribution, and is available at http://www.eclipse.org/legal/epl-v10.html
+ * *****************************************************************************
+ */
+package org.eclipse.foundation.gerrit.validation;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Shared store kept in memory, shared by all the instances of the plugin loaded in the same JVM and
+ * class loader, e.g. several Gerrit servers started by a test.
+ */
+final class InMemorySharedStore implements EcaSharedStore {
+  static final InMemorySharedStore INSTANCE = new InMemorySharedStore();
+
+  private final Map<String, byte[]> entries = new ConcurrentHashMap<>();
+
+  @Override
+  public Optional<byte[]> get(String cache, String key) {
+    return Optional.ofNullable(entries.get(cache + "/" + key));
+  }
+
+  @Override
+  public void put(String cache, String key, byte[] value) {
+    entries.put(cache + "/" + key, value);
+  }
+
+  @Override
+  public void remove(String cache, String key) {
+    entries.remove(cache + "/" + key);
+  }
+
+  /** Removes all the entries. */
+  void clear() {
+    entries.clear();
+  }
+}
@@ -0,0 +1,45 @@
+/**
+ * ***************************************************************************** Copyright (c) 2025
+ * Eclipse Foundation and others. All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0 which accompanies this
+ * distribution, and is available at http://www.eclipse.org/legal/epl-v10.html
+ * *****************************************************************************
+ */
+package org.eclipse.foundation.gerrit.validation;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.gerrit.server.cache.serialize.CacheSerializer;
+import com.squareup.moshi.JsonAdapter;
+import com.squareup.moshi.Moshi;
+import java.io.IOException;
+
+/**
+ * Serializes the entries of the persistent caches of the plugin as JSON, using the same Moshi
+ * adapters as the ECA API requests and responses.
+ *
+ * @param <T> the type of the serialized entries
+ */
+final class JsonCacheSerializer<T> implements CacheSerializer<T> {
+  private static final Moshi MOSHI = new Moshi.Builder().add(JsonAdapterFactory.create()).build();
+
+  private final JsonAdapter<T> adapter;
+
+  JsonCacheSerializer(Class<T> type) {
+    this.adapter = MOSHI.adapter(type);
+  }
+
+  @Override
+  public byte[] serialize(T object) {
+    return adapter.toJson(object).getBytes(UTF_8);
+  }
+
+  @Override
+  public T deserialize(byte[] in) {
+    try {
+      return adapter.fromJson(new String(in, UTF_8));
+    } catch (IOException e) {
+      throw new IllegalStateException("Cannot deserialize cache entry", e);
+    }
+  }
+}
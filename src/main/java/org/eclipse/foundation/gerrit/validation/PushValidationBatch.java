@@ -0,0 +1,379 @@
+/**
+ * ***************************************************************************** Copyright (c) 2025
+ * Eclipse Foundation and others. All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0 which accompanies this
+ * distribution, and is available at http://www.eclipse.org/legal/epl-v10.html
+ * *****************************************************************************
+ */
+package org.eclipse.foundation.gerrit.validation;
+
+import com.google.auto.value.AutoValue;
+import com.google.common.collect.Lists;
+import com.google.common.flogger.FluentLogger;
+import com.google.gerrit.entities.PatchSet;
+import com.google.gerrit.entities.Project;
+import com.google.gerrit.entities.RefNames;
+import com.google.gerrit.server.events.CommitReceivedEvent;
+import com.google.gerrit.server.git.validators.CommitValidationException;
+import com.google.gerrit.server.git.validators.CommitValidationMessage;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Predicate;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Ref;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevObject;
+import org.eclipse.jgit.revwalk.RevSort;
+import org.eclipse.jgit.revwalk.RevWalk;
+
+/**
+ * The new commits of a single {@code ReceiveCommits} command, validated in chunks of at most {@code
+ * maxBatchSize} commits per ECA API request.
+ *
+ * <p>Gerrit invokes the commit validation listeners once per commit; the first invocation for a
+ * command walks the whole new range and sends all its chunks to the API concurrently. The
+ * per-commit results are then served from memory for the remaining invocations of the same push,
+ * so that the latency of a push is the one of its slowest request rather than the sum of all of
+ * them.
+ */
+final class PushValidationBatch {
+  private static final FluentLogger logger = FluentLogger.forEnclosingClass();
+
+  /** Maximum number of authors listed in the summary of a push. */
+  private static final int MAX_SUMMARY_AUTHORS = 50;
+
+  @AutoValue
+  abstract static class Key {
+    abstract Project.NameKey project();
+
+    abstract String refName();
+
+    abstract ObjectId oldId();
+
+    abstract ObjectId newId();
+
+    static Key create(CommitReceivedEvent event) {
+      return new AutoValue_PushValidationBatch_Key(
+          event.project.getNameKey(),
+          event.command.getRefName(),
+          event.command.getOldId().copy(),
+          event.command.getNewId().copy());
+    }
+  }
+
+  private final Project.NameKey project;
+  private final ObjectId tip;
+  private final List<List<ObjectId>> chunks;
+  private final Map<ObjectId, Integer> chunkIndex = new HashMap<>();
+  private final Map<ObjectId, ValidationResponse> responses = new ConcurrentHashMap<>();
+  private final Set<Integer> validatedChunks = ConcurrentHashMap.newKeySet();
+  private final Map<Integer, Throwable> failedChunks = new ConcurrentHashMap<>();
+  private final int skipped;
+
+  /** The author email of each commit sent to the API, guarded by this batch. */
+  private final Map<ObjectId, String> authors = new HashMap<>();
+
+  private boolean summarized;
+
+  private PushValidationBatch(
+      Project.NameKey project, ObjectId tip, List<List<ObjectId>> chunks, int skipped) {
+    this.project = project;
+    this.tip = tip;
+    this.chunks = chunks;
+    this.skipped = skipped;
+    for (int i = 0; i < chunks.size(); i++) {
+      for (ObjectId id : chunks.get(i)) {
+        chunkIndex.put(id, i);
+      }
+    }
+  }
+
+  /**
+   * Walks the commits introduced by the command of the event, i.e. the commits reachable from its
+   * new tip that are neither reachable from its old value nor from any branch, tag or patch set of
+   * an existing change. {@code ReceiveCommits} never validates the latter, so they are never sent
+   * to the API either.
+   *
+   * <p>When {@code skipKnownCommits} is set, the commits already validated are left out as well.
+   * The commits excluded from the validation by the rules of the project are always left out.
+   *
+   * @param repo the repository receiving the push
+   * @param event the event of the first validated commit of the push
+   * @param maxBatchSize the maximum number of commits sent in a single request
+   * @param skipKnownCommits whether to leave out the commits already validated
+   * @param alreadyValidated whether a commit has already been validated
+   * @param excluded whether a commit is excluded from the validation
+   * @return the batch of all the new commits of the command
+   * @throws IOException if the commits or refs of the repository could not be read
+   */
+  static PushValidationBatch create(
+      Repository repo,
+      CommitReceivedEvent event,
+      int maxBatchSize,
+      boolean skipKnownCommits,
+      Predicate<ObjectId> alreadyValidated,
+      Predicate<RevCommit> excluded)
+      throws IOException {
+    ObjectId tip = event.command.getNewId().copy();
+    List<ObjectId> commits = new ArrayList<>();
+    int skipped = 0;
+    // the walk shares the reader of the push but must not interfere with Gerrit's own walk
+    try (RevWalk rw = new RevWalk(event.revWalk.getObjectReader())) {
+      rw.sort(RevSort.TOPO);
+      rw.markStart(rw.parseCommit(tip));
+      if (!ObjectId.zeroId().equals(event.command.getOldId())) {
+        markUninteresting(rw, event.command.getOldId());
+      }
+      for (Ref ref : repo.getRefDatabase().getRefsByPrefix(Constants.R_HEADS, Constants.R_TAGS)) {
+        if (ref.getObjectId() != null) {
+          markUninteresting(rw, ref.getObjectId());
+        }
+      }
+      for (Ref ref : repo.getRefDatabase().getRefsByPrefix(RefNames.REFS_CHANGES)) {
+        if (ref.getObjectId() != null && PatchSet.isChangeRef(ref.getName())) {
+          markUninteresting(rw, ref.getObjectId());
+        }
+      }
+      for (RevCommit c : rw) {
+        if ((skipKnownCommits && alreadyValidated.test(c)) || excluded.test(c)) {
+          skipped++;
+          continue;
+        }
+        commits.add(c.copy());
+      }
+      logger.atFine().log(
+          "Push of %s to %s in project %s contains %d new commits, %d validated or excluded",
+          tip.name(),
+          event.command.getRefName(),
+          event.project.getName(),
+          commits.size(),
+          skipped);
+    }
+    return new PushValidationBatch(
+        event.project.getNameKey(),
+        tip,
+        Lists.partition(commits, Math.max(1, maxBatchSize)),
+        skipped);
+  }
+
+  /** Returns the number of new commits of the push, including the ones left out of the batch. */
+  int size() {
+    return chunkIndex.size() + skipped;
+  }
+
+  /** Returns whether a commit is validated as part of this batch. */
+  boolean contains(ObjectId commit) {
+    return chunkIndex.containsKey(commit);
+  }
+
+  /** Returns whether the API reported on a commit of this batch. */
+  boolean hasResponse(ObjectId commit) {
+    return responses.containsKey(commit);
+  }
+
+  /**
+   * Returns the summary of the validated commits of the push, aggregated per author, the first time
+   * it is requested once the API reported on some of them.
+   *
+   * @return the lines of the summary, or empty if it was already returned or nothing was validated
+   */
+  synchronized Optional<List<String>> takeSummary() {
+    if (summarized || responses.isEmpty()) {
+      return Optional.empty();
+    }
+    summarized = true;
+
+    // commits and failing commits per author, in the order of the push
+    Map<String, int[]> counts = new LinkedHashMap<>();
+    int validated = 0;
+    for (List<ObjectId> chunk : chunks) {
+      for (ObjectId id : chunk) {
+        ValidationResponse r = responses.get(id);
+        if (r == null) {
+          continue;
+        }
+        validated++;
+        int[] c = counts.computeIfAbsent(authors.getOrDefault(id, "unknown"), a -> new int[2]);
+        c[0]++;
+        if (r.errorCount() > 0 && r.trackedProject()) {
+          c[1]++;
+        }
+      }
+    }
+
+    List<String> lines = new ArrayList<>(Math.min(counts.size(), MAX_SUMMARY_AUTHORS) + 3);
+    lines.add(String.format("Reviewed %s of push to %s:", commits(size()), project.get()));
+    int listed = 0;
+    for (Map.Entry<String, int[]> e : counts.entrySet()) {
+      if (listed++ == MAX_SUMMARY_AUTHORS) {
+        lines.add(String.format("  ... and %d more authors", counts.size() - MAX_SUMMARY_AUTHORS));
+        break;
+      }
+      int[] c = e.getValue();
+      lines.add(
+          String.format(
+              "  %s by %s: %s",
+              commits(c[0]),
+              e.getKey(),
+              c[1] == 0 ? "ECA OK" : String.format("%d without ECA", c[1])));
+    }
+    if (validated < chunkIndex.size()) {
+      lines.add(String.format("  %s not validated yet", commits(chunkIndex.size() - validated)));
+    }
+    if (skipped > 0) {
+      lines.add(String.format("  %s already validated or excluded", commits(skipped)));
+    }
+    return Optional.of(lines);
+  }
+
+  private static String commits(int count) {
+    return count == 1 ? "1 commit" : count + " commits";
+  }
+
+  private static void markUninteresting(RevWalk rw, ObjectId id) throws IOException {
+    RevObject obj = rw.peel(rw.parseAny(id));
+    if (obj instanceof RevCommit) {
+      rw.markUninteresting((RevCommit) obj);
+    }
+  }
+
+  /**
+   * Returns the validation result of a commit of this batch. The first time a commit that was not
+   * validated yet is requested, all the pending chunks are sent to the API concurrently, with at
+   * most {@code maxConcurrentRequests} requests in flight, and awaited once until the deadline.
+   *
+   * @param validator the validator performing the API requests
+   * @param event the event of the commit being validated
+   * @param maxConcurrentRequests the maximum number of requests in flight for this push
+   * @param deadlineSecs the maximum time to wait for all the pending chunks, in seconds
+   * @return the response of the API for that commit only, or empty if the commit is not part of
+   *     this batch or the API did not report on it
+   * @throws CommitValidationException if the validation request of the commit failed
+   */
+  synchronized Optional<ValidationResponse> responseFor(
+      BaseEclipseCommitValidator validator,
+      CommitReceivedEvent event,
+      int maxConcurrentRequests,
+      long deadlineSecs)
+      throws CommitValidationException {
+    RevCommit commit = event.commit;
+    ValidationResponse response = responses.get(commit);
+    if (response != null) {
+      return Optional.of(response);
+    }
+    Integer index = chunkIndex.get(commit);
+    if (index == null) {
+      return Optional.empty();
+    }
+
+    if (!validatedChunks.contains(index)) {
+      Map<Integer, List<Commit>> pending = new LinkedHashMap<>();
+      CommitPayload payload = validator.payload(project);
+      try (RevWalk rw = new RevWalk(event.revWalk.getObjectReader())) {
+        for (int i = 0; i < chunks.size(); i++) {
+          if (!validatedChunks.contains(i)) {
+            pending.put(i, requestCommits(rw, chunks.get(i), payload));
+          }
+        }
+      } catch (IOException e) {
+        logger.atSevere().withCause(e).log(
+            "Cannot read commits of push to project %s, validating %s alone",
+            project, commit.name());
+        return Optional.empty();
+      }
+      validateConcurrently(validator, pending, maxConcurrentRequests, deadlineSecs);
+    }
+
+    Throwable failure = failedChunks.remove(index);
+    if (failure != null) {
+      throw BaseEclipseCommitValidator.toCommitValidationException(failure);
+    }
+    return Optional.ofNullable(responses.get(commit));
+  }
+
+  private List<Commit> requestCommits(RevWalk rw, List<ObjectId> chunk, CommitPayload payload)
+      throws IOException {
+    List<Commit> requestCommits = new ArrayList<>(chunk.size());
+    for (ObjectId id : chunk) {
+      RevCommit c = rw.parseCommit(id);
+      authors.put(id, c.getAuthorIdent().getEmailAddress());
+      requestCommits.add(
+          payload.toRequestCommit(c, c.getAuthorIdent(), c.getCommitterIdent(), tip.equals(c)));
+    }
+    return requestCommits;
+  }
+
+  private void validateConcurrently(
+      BaseEclipseCommitValidator validator,
+      Map<Integer, List<Commit>> pending,
+      int maxConcurrentRequests,
+      long deadlineSecs)
+      throws CommitValidationException {
+    Iterator<Map.Entry<Integer, List<Commit>>> queue = pending.entrySet().iterator();
+    int lanes = Math.max(1, Math.min(maxConcurrentRequests, pending.size()));
+    CompletableFuture<?>[] inFlight = new CompletableFuture<?>[lanes];
+    for (int i = 0; i < lanes; i++) {
+      inFlight[i] = nextChunk(validator, queue);
+    }
+
+    try {
+      CompletableFuture.allOf(inFlight).get(deadlineSecs, TimeUnit.SECONDS);
+    } catch (TimeoutException e) {
+      throw new CommitValidationException(
+          String.format("ECA validation did not complete within %d seconds", deadlineSecs),
+          new CommitValidationMessage("ECA validation timed out", true),
+          e);
+    } catch (ExecutionException e) {
+      // chunk failures are recorded per chunk and reported to the commits they contain
+      logger.atFine().log("ECA validation of push to %s failed: %s", project, e.getMessage());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new CommitValidationException(
+          "Verification of commit has been interrupted",
+          new CommitValidationMessage(e.getMessage(), true),
+          e);
+    }
+  }
+
+  /** Sends the next pending chunk, chaining the following one when its response arrives. */
+  private CompletableFuture<Void> nextChunk(
+      BaseEclipseCommitValidator validator, Iterator<Map.Entry<Integer, List<Commit>>> queue) {
+    Map.Entry<Integer, List<Commit>> next;
+    synchronized (queue) {
+      if (!queue.hasNext()) {
+        return CompletableFuture.completedFuture(null);
+      }
+      next = queue.next();
+    }
+    int index = next.getKey();
+    return validator
+        .validateAsync(project, next.getValue())
+        .handle(
+            (batchResponse, failure) -> {
+              if (failure != null) {
+                failedChunks.put(index, failure);
+                return null;
+              }
+              for (ObjectId id : chunks.get(index)) {
+                batchResponse.forCommit(id.name()).ifPresent(r -> responses.put(id, r));
+              }
+              validatedChunks.add(index);
+              return null;
+            })
+        .thenCompose(v -> nextChunk(validator, queue));
+  }
+}
@@ -10,39 +10,112 @@
  */
 package org.eclipse.foundation.gerrit.validation;
 
+import com.google.auto.value.AutoValue;
 import com.google.common.flogger.FluentLogger;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.gerrit.extensions.annotations.PluginName;
+import com.google.gerrit.extensions.events.LifecycleListener;
+import com.google.gerrit.server.config.ConfigUtil;
+import com.google.gerrit.server.config.GerritServerConfig;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
 import com.squareup.moshi.JsonAdapter;
 import com.squareup.moshi.Moshi;
+import java.io.IOException;
 import java.time.Duration;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
-import java.util.concurrent.Executors;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.SynchronousQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import okhttp3.ConnectionPool;
 import okhttp3.ConnectionSpec;
 import okhttp3.Dispatcher;
 import okhttp3.HttpUrl;
+import okhttp3.Interceptor;
 import okhttp3.OkHttpClient;
-import okhttp3.internal.Util;
+import okhttp3.Protocol;
+import okhttp3.RequestBody;
+import okhttp3.Response;
 import okhttp3.logging.HttpLoggingInterceptor;
 import okhttp3.logging.HttpLoggingInterceptor.Level;
+import org.eclipse.jgit.lib.Config;
 import retrofit2.Retrofit;
 import retrofit2.converter.moshi.MoshiConverterFactory;
 
-final class RetrofitFactory {
+/**
+ * Plugin-scoped factory of Retrofit services sharing a single HTTP client.
+ *
+ * <p>The underlying {@link OkHttpClient}, its connection pool and its dispatcher are created when
+ * the plugin starts and released when it stops, so that consecutive validations reuse the same
+ * (keep-alive, possibly HTTP/2) connections instead of paying a new handshake for every commit.
+ * Services are created once per distinct base URL and timeout and then reused.
+ */
+@Singleton
+final class RetrofitFactory implements LifecycleListener {
   private static final FluentLogger logger = FluentLogger.forEnclosingClass();
 
   static final String AUTHORIZATION = "Authorization";
 
+  private static final int DEFAULT_MAX_IDLE_CONNECTIONS = 5;
+  private static final long DEFAULT_KEEP_ALIVE_SECS = TimeUnit.MINUTES.toSeconds(5);
+  private static final int DEFAULT_MAX_REQUESTS = 64;
+  private static final int DEFAULT_MAX_REQUESTS_PER_HOST = 16;
+
   private final MoshiConverterFactory moshiConverterFactory;
+  private final StreamingJsonConverterFactory streamingConverterFactory;
   private final Moshi moshi;
 
   private final HttpLoggingInterceptor loggingInterceptor;
 
-  RetrofitFactory() {
+  private final int maxIdleConnections;
+  private final long keepAliveSecs;
+  private final int maxRequests;
+  private final int maxRequestsPerHost;
+
+  private final EcaMetrics metrics;
+  private final List<Interceptor> interceptors;
+
+  private final ConcurrentMap<ServiceKey, Object> services = new ConcurrentHashMap<>();
+  private volatile OkHttpClient client;
+
+  @Inject
+  RetrofitFactory(
+      @GerritServerConfig Config cfg, @PluginName String pluginName, EcaMetrics metrics) {
+    this(
+        cfg.getInt("plugin", pluginName, "maxIdleConnections", DEFAULT_MAX_IDLE_CONNECTIONS),
+        ConfigUtil.getTimeUnit(
+            cfg,
+            "plugin",
+            pluginName,
+            "connectionKeepAlive",
+            DEFAULT_KEEP_ALIVE_SECS,
+            TimeUnit.SECONDS),
+        cfg.getInt("plugin", pluginName, "maxRequests", DEFAULT_MAX_REQUESTS),
+        cfg.getInt("plugin", pluginName, "maxRequestsPerHost", DEFAULT_MAX_REQUESTS_PER_HOST),
+        metrics);
+  }
+
+  RetrofitFactory(
+      int maxIdleConnections,
+      long keepAliveSecs,
+      int maxRequests,
+      int maxRequestsPerHost,
+      EcaMetrics metrics,
+      Interceptor... interceptors) {
+    this.metrics = metrics;
+    this.interceptors = Arrays.asList(interceptors);
+    this.maxIdleConnections = maxIdleConnections;
+    this.keepAliveSecs = keepAliveSecs;
+    this.maxRequests = maxRequests;
+    this.maxRequestsPerHost = maxRequestsPerHost;
     this.moshi = new Moshi.Builder().add(JsonAdapterFactory.create()).build();
     this.moshiConverterFactory = MoshiConverterFactory.create(this.moshi);
+    this.streamingConverterFactory =
+        new StreamingJsonConverterFactory(this.moshi, metrics::recordRequestSize);
 
     this.loggingInterceptor =
         new HttpLoggingInterceptor(
@@ -56,35 +129,110 @@ final class RetrofitFactory {
     this.loggingInterceptor.redactHeader(AUTHORIZATION);
   }
 
-  private Retrofit newRetrofit(HttpUrl baseUrl, int apiTimeout) {
-    OkHttpClient client =
-        new OkHttpClient.Builder()
-            .callTimeout(Duration.ofSeconds(apiTimeout))
-            .dispatcher(
-                new Dispatcher(
-                    new ThreadPoolExecutor(
-                        0,
-                        Integer.MAX_VALUE,
-                        60,
-                        TimeUnit.SECONDS,
-                        new SynchronousQueue<>(),
-                        Util.threadFactory("OkHttp Dispatcher", true))))
+  @Override
+  public synchronized void start() {
+    if (client != null) {
+      return;
+    }
+    Dispatcher dispatcher =
+        new Dispatcher(
+            new ThreadPoolExecutor(
+                0,
+                Integer.MAX_VALUE,
+                60,
+                TimeUnit.SECONDS,
+                new SynchronousQueue<>(),
+                new ThreadFactoryBuilder()
+                    .setNameFormat("ECA-OkHttp-Dispatcher-%d")
+                    .setDaemon(true)
+                    .build()));
+    dispatcher.setMaxRequests(maxRequests);
+    dispatcher.setMaxRequestsPerHost(maxRequestsPerHost);
+
+    OkHttpClient.Builder builder = new OkHttpClient.Builder();
+    // additional interceptors run first, e.g. to route the requests of benchmarks to a local server
+    interceptors.forEach(builder::addInterceptor);
+    client =
+        builder
+            .dispatcher(dispatcher)
+            .connectionPool(
+                new ConnectionPool(maxIdleConnections, keepAliveSecs, TimeUnit.SECONDS))
+            .protocols(Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1))
             .addInterceptor(loggingInterceptor)
+            .addInterceptor(this::recordMetrics)
             // Workaround for IBM JVM compatibility (COMPATIBLE_TLS is the only profile including
             // TLS_1_0)
             .connectionSpecs(Arrays.asList(ConnectionSpec.COMPATIBLE_TLS, ConnectionSpec.CLEARTEXT))
             .build();
+    logger.atInfo().log(
+        "ECA HTTP client started (maxIdleConnections=%d, keepAlive=%ds, maxRequestsPerHost=%d)",
+        maxIdleConnections, keepAliveSecs, maxRequestsPerHost);
+  }
+
+  @Override
+  public synchronized void stop() {
+    if (client == null) {
+      return;
+    }
+    services.clear();
+    client.dispatcher().executorService().shutdown();
+    client.connectionPool().evictAll();
+    client = null;
+    logger.atInfo().log("ECA HTTP client stopped");
+  }
 
+  /** Number of requests to the ECA API currently being executed. */
+  int runningCalls() {
+    OkHttpClient sharedClient = client;
+    return sharedClient == null ? 0 : sharedClient.dispatcher().runningCallsCount();
+  }
+
+  private Response recordMetrics(Interceptor.Chain chain) throws IOException {
+    RequestBody body = chain.request().body();
+    // once per call, the streamed bodies report their size when first written
+    if (body != null && body.contentLength() >= 0) {
+      metrics.recordRequestSize(body.contentLength());
+    }
+    long start = System.nanoTime();
+    int status = 0;
+    try {
+      Response response = chain.proceed(chain.request());
+      status = response.code();
+      return response;
+    } finally {
+      metrics.recordApiCall(status, System.nanoTime() - start);
+    }
+  }
+
+  private Retrofit newRetrofit(HttpUrl baseUrl, int apiTimeout) {
+    OkHttpClient sharedClient = client;
+    if (sharedClient == null) {
+      throw new IllegalStateException("ECA HTTP client is not started");
+    }
+    // derived clients share the connection pool and the dispatcher of the plugin client
     return new Retrofit.Builder()
         .baseUrl(baseUrl)
-        .callbackExecutor(Executors.newSingleThreadExecutor())
+        // request bodies are streamed, responses are read by the Moshi converter
+        .addConverterFactory(this.streamingConverterFactory)
         .addConverterFactory(this.moshiConverterFactory)
-        .client(client)
+        .client(sharedClient.newBuilder().callTimeout(Duration.ofSeconds(apiTimeout)).build())
         .build();
   }
 
+  /**
+   * Returns the service for the given base URL and timeout, creating it on first use.
+   *
+   * @param <T> the type of the Retrofit service
+   * @param baseUrl the base URL of the service
+   * @param apiTimeout the call timeout in seconds
+   * @param serviceClass the Retrofit service interface
+   * @return the shared service instance
+   */
   public <T> T newService(HttpUrl baseUrl, int apiTimeout, Class<T> serviceClass) {
-    return newRetrofit(baseUrl, apiTimeout).create(serviceClass);
+    return serviceClass.cast(
+        services.computeIfAbsent(
+            ServiceKey.create(baseUrl, apiTimeout, serviceClass),
+            k -> newRetrofit(baseUrl, apiTimeout).create(serviceClass)));
   }
 
   /**
@@ -98,4 +246,17 @@ final class RetrofitFactory {
   public <T> Optional<JsonAdapter<T>> adapter(Class<T> type) {
     return Optional.ofNullable(this.moshi.adapter(type));
   }
+
+  @AutoValue
+  abstract static class ServiceKey {
+    abstract HttpUrl baseUrl();
+
+    abstract int apiTimeout();
+
+    abstract Class<?> serviceClass();
+
+    static ServiceKey create(HttpUrl baseUrl, int apiTimeout, Class<?> serviceClass) {
+      return new AutoValue_RetrofitFactory_ServiceKey(baseUrl, apiTimeout, serviceClass);
+    }
+  }
 }
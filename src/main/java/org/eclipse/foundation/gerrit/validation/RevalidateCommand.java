@@ -0,0 +1,189 @@
+/**
+ * ***************************************************************************** Copyright (c) 2025
+ * Eclipse Foundation and others. All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0 which accompanies this
+ * distribution, and is available at http://www.eclipse.org/legal/epl-v10.html
+ * *****************************************************************************
+ */
+package org.eclipse.foundation.gerrit.validation;
+
+import com.google.common.util.concurrent.RateLimiter;
+import com.google.gerrit.common.data.GlobalCapability;
+import com.google.gerrit.entities.Project;
+import com.google.gerrit.extensions.annotations.RequiresCapability;
+import com.google.gerrit.index.query.QueryParseException;
+import com.google.gerrit.server.git.WorkQueue;
+import com.google.gerrit.server.query.change.ChangeData;
+import com.google.gerrit.server.query.change.ChangeQueryBuilder;
+import com.google.gerrit.server.query.change.ChangeQueryProcessor;
+import com.google.gerrit.server.util.ManualRequestContext;
+import com.google.gerrit.server.util.OneOffRequestContext;
+import com.google.gerrit.sshd.CommandMetaData;
+import com.google.gerrit.sshd.SshCommand;
+import com.google.inject.Inject;
+import com.google.inject.Provider;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import org.kohsuke.args4j.Option;
+
+/**
+ * Validates again the ECA of the open changes matching a query, e.g. after a change of the ECA
+ * policy, instead of waiting for their verdicts to be refreshed one by one.
+ */
+@RequiresCapability(GlobalCapability.ADMINISTRATE_SERVER)
+@CommandMetaData(name = "revalidate", description = "Validate again the ECA of open changes")
+final class RevalidateCommand extends SshCommand {
+  @Option(
+      name = "--project",
+      aliases = {"-p"},
+      metaVar = "PROJECT",
+      usage = "project whose open changes are validated, can be repeated")
+  private List<String> projects = new ArrayList<>();
+
+  @Option(
+      name = "--query",
+      aliases = {"-q"},
+      metaVar = "QUERY",
+      usage = "query selecting the open changes to validate")
+  private String query;
+
+  @Option(name = "--threads", metaVar = "N", usage = "number of projects validated concurrently")
+  private int threads = 1;
+
+  @Option(
+      name = "--rate",
+      metaVar = "N",
+      usage = "maximum number of requests per second sent to the ECA API, unlimited by default")
+  private double rate;
+
+  @Option(
+      name = "--batch-size",
+      metaVar = "N",
+      usage = "maximum number of commits sent in a single request")
+  private int batchSize = 100;
+
+  private final Provider<ChangeQueryProcessor> queryProcessor;
+  private final Provider<ChangeQueryBuilder> queryBuilder;
+  private final EcaRevalidator revalidator;
+  private final OneOffRequestContext requestContext;
+  private final WorkQueue workQueue;
+
+  @Inject
+  RevalidateCommand(
+      Provider<ChangeQueryProcessor> queryProcessor,
+      Provider<ChangeQueryBuilder> queryBuilder,
+      EcaRevalidator revalidator,
+      OneOffRequestContext requestContext,
+      WorkQueue workQueue) {
+    this.queryProcessor = queryProcessor;
+    this.queryBuilder = queryBuilder;
+    this.revalidator = revalidator;
+    this.requestContext = requestContext;
+    this.workQueue = workQueue;
+  }
+
+  @Override
+  protected void run() throws UnloggedFailure, Exception {
+    if (projects.isEmpty() && query == null) {
+      throw die("at least one of --project and --query is required");
+    }
+
+    List<ChangeData> changes;
+    try {
+      changes =
+          queryProcessor
+              .get()
+              .enforceVisibility(false)
+              .setNoLimit(true)
+              .query(queryBuilder.get().parse(changeQuery()))
+              .entities();
+    } catch (QueryParseException e) {
+      throw die(e.getMessage());
+    }
+
+    Map<Project.NameKey, List<ChangeData>> byProject = new LinkedHashMap<>();
+    for (ChangeData cd : changes) {
+      byProject.computeIfAbsent(cd.project(), p -> new ArrayList<>()).add(cd);
+    }
+    stdout.format("Validating %d changes of %d projects%n", changes.size(), byProject.size());
+    stdout.flush();
+
+    Optional<RateLimiter> rateLimiter =
+        rate > 0 ? Optional.of(RateLimiter.create(rate)) : Optional.empty();
+    AtomicInteger done = new AtomicInteger();
+    AtomicInteger failing = new AtomicInteger();
+    AtomicInteger reindexed = new AtomicInteger();
+    AtomicInteger errors = new AtomicInteger();
+    // a queue of its own, listed by show-queue and removed once shut down
+    ScheduledExecutorService pool = workQueue.createQueue(Math.max(1, threads), "ECA-Revalidate");
+    try {
+      List<Future<EcaRevalidator.Result>> results = new ArrayList<>();
+      for (Map.Entry<Project.NameKey, List<ChangeData>> e : byProject.entrySet()) {
+        results.add(
+            pool.submit(
+                () -> {
+                  // the changes are re-indexed outside of the thread of the command
+                  try (ManualRequestContext ctx = requestContext.open()) {
+                    return revalidator.revalidate(
+                        e.getKey(),
+                        e.getValue(),
+                        batchSize,
+                        rateLimiter,
+                        r -> {
+                          failing.addAndGet(r.failing());
+                          reindexed.addAndGet(r.reindexed());
+                          errors.addAndGet(r.errors());
+                          int total = done.addAndGet(r.validated() + r.errors());
+                          progress(e.getKey(), total, changes.size());
+                        });
+                  }
+                }));
+      }
+      for (Future<EcaRevalidator.Result> result : results) {
+        try {
+          result.get();
+        } catch (ExecutionException e) {
+          stderr.format("error: %s%n", e.getCause().getMessage());
+          stderr.flush();
+        }
+      }
+    } finally {
+      pool.shutdownNow();
+    }
+
+    stdout.format(
+        "Validated %d changes: %d without ECA, %d re-indexed, %d errors%n",
+        done.get() - errors.get(), failing.get(), reindexed.get(), errors.get());
+  }
+
+  private String changeQuery() {
+    StringBuilder q = new StringBuilder("status:open");
+    if (!projects.isEmpty()) {
+      q.append(" (")
+          .append(
+              projects.stream()
+                  .map(p -> "project:\"" + p + "\"")
+                  .collect(Collectors.joining(" OR ")))
+          .append(")");
+    }
+    if (query != null) {
+      q.append(" (").append(query).append(")");
+    }
+    return q.toString();
+  }
+
+  private void progress(Project.NameKey project, int done, int total) {
+    synchronized (stdout) {
+      stdout.format("[%d/%d] %s%n", done, total, project.get());
+      stdout.flush();
+    }
+  }
+}
@@ -0,0 +1,68 @@
+/**
+ * ***************************************************************************** Copyright (c) 2025
+ * Eclipse Foundation and others. All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0 which accompanies this
+ * distribution, and is available at http://www.eclipse.org/legal/epl-v10.html
+ * *****************************************************************************
+ */
+package org.eclipse.foundation.gerrit.validation;
+
+import com.google.common.cache.Cache;
+import com.google.common.flogger.FluentLogger;
+import com.squareup.moshi.JsonDataException;
+
+/**
+ * A cache of the node in front of the {@link EcaSharedStore}: lookups missing the cache of the node
+ * are read from the shared store, and updates are written to both.
+ *
+ * <p>The cache of the node is a regular Gerrit cache, so that its evictions can be broadcast to the
+ * other nodes of a cluster like those of the Gerrit caches.
+ *
+ * @param <V> the type of the entries
+ */
+final class SharedCache<V> {
+  private static final FluentLogger logger = FluentLogger.forEnclosingClass();
+
+  private final String name;
+  private final Cache<String, V> cache;
+  private final EcaSharedStore store;
+  private final JsonCacheSerializer<V> serializer;
+
+  SharedCache(String name, Cache<String, V> cache, EcaSharedStore store, Class<V> type) {
+    this.name = name;
+    this.cache = cache;
+    this.store = store;
+    this.serializer = new JsonCacheSerializer<>(type);
+  }
+
+  V getIfPresent(String key) {
+    V value = cache.getIfPresent(key);
+    if (value != null) {
+      return value;
+    }
+    byte[] bytes = store.get(name, key).orElse(null);
+    if (bytes == null) {
+      return null;
+    }
+    try {
+      value = serializer.deserialize(bytes);
+    } catch (IllegalStateException | JsonDataException e) {
+      logger.atWarning().withCause(e).log("Ignoring invalid shared entry %s of %s", key, name);
+      return null;
+    }
+    if (value != null) {
+      cache.put(key, value);
+    }
+    return value;
+  }
+
+  void put(String key, V value) {
+    cache.put(key, value);
+    store.put(name, key, serializer.serialize(value));
+  }
+
+  void invalidate(String key) {
+    cache.invalidate(key);
+    store.remove(name, key);
+  }
+}
@@ -0,0 +1,150 @@
+/**
+ * ***************************************************************************** Copyright (c) 2025
+ * Eclipse Foundation and others. All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0 which accompanies this
+ * distribution, and is available at http://www.eclipse.org/legal/epl-v10.html
+ * *****************************************************************************
+ */
+package org.eclipse.foundation.gerrit.validation;
+
+import com.squareup.moshi.JsonAdapter;
+import com.squareup.moshi.JsonWriter;
+import com.squareup.moshi.Moshi;
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongConsumer;
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.Buffer;
+import okio.BufferedSink;
+import okio.ForwardingSink;
+import okio.Okio;
+import okio.Sink;
+import retrofit2.Converter;
+import retrofit2.Retrofit;
+
+/**
+ * Retrofit converter writing request bodies as JSON directly into the connection.
+ *
+ * <p>The Moshi converter serializes the whole request into a buffer before sending it, so that a
+ * request with many commits or large messages is held twice in memory. Small bodies are still
+ * buffered, so that they are sent with their length and replayed as is on a retry or a redirect.
+ * The bodies above {@link #MAX_BUFFERED_BYTES} are serialized only when OkHttp writes them,
+ * straight into the sink of the connection, and sent chunked; their size is reported once the
+ * first write completes. Responses are left to the Moshi converter.
+ */
+final class StreamingJsonConverterFactory extends Converter.Factory {
+  private static final MediaType MEDIA_TYPE = MediaType.get("application/json; charset=UTF-8");
+
+  /** Size above which a body is streamed rather than buffered. */
+  static final long MAX_BUFFERED_BYTES = 64 << 10;
+
+  private final Moshi moshi;
+  private final LongConsumer sizeRecorder;
+
+  /**
+   * @param moshi the Moshi instance providing the JSON adapters
+   * @param sizeRecorder called once with the size in bytes of each streamed body, whose length is
+   *     unknown to OkHttp
+   */
+  StreamingJsonConverterFactory(Moshi moshi, LongConsumer sizeRecorder) {
+    this.moshi = moshi;
+    this.sizeRecorder = sizeRecorder;
+  }
+
+  @Override
+  public Converter<?, RequestBody> requestBodyConverter(
+      Type type,
+      Annotation[] parameterAnnotations,
+      Annotation[] methodAnnotations,
+      Retrofit retrofit) {
+    JsonAdapter<Object> adapter = moshi.adapter(type);
+    return value -> {
+      Buffer buffer = new Buffer();
+      try {
+        write(adapter, value, new LimitedSink(buffer, MAX_BUFFERED_BYTES));
+      } catch (BodyTooLargeException e) {
+        return new StreamingJsonBody(adapter, value);
+      }
+      return RequestBody.create(MEDIA_TYPE, buffer.readByteString());
+    };
+  }
+
+  private static void write(JsonAdapter<Object> adapter, Object value, Sink sink)
+      throws IOException {
+    // the writer must not close the sink of the connection
+    BufferedSink buffered = Okio.buffer(sink);
+    adapter.toJson(JsonWriter.of(buffered), value);
+    buffered.emit();
+  }
+
+  private final class StreamingJsonBody extends RequestBody {
+    private final JsonAdapter<Object> adapter;
+    private final Object value;
+    private final AtomicBoolean recorded = new AtomicBoolean();
+
+    StreamingJsonBody(JsonAdapter<Object> adapter, Object value) {
+      this.adapter = adapter;
+      this.value = value;
+    }
+
+    @Override
+    public MediaType contentType() {
+      return MEDIA_TYPE;
+    }
+
+    @Override
+    public long contentLength() {
+      // unknown until written, the body is sent chunked
+      return -1;
+    }
+
+    @Override
+    public void writeTo(BufferedSink sink) throws IOException {
+      CountingSink counting = new CountingSink(sink);
+      write(adapter, value, counting);
+      // a retry or a redirect writes the same body again
+      if (recorded.compareAndSet(false, true)) {
+        sizeRecorder.accept(counting.bytes);
+      }
+    }
+  }
+
+  private static class CountingSink extends ForwardingSink {
+    long bytes;
+
+    CountingSink(Sink delegate) {
+      super(delegate);
+    }
+
+    @Override
+    public void write(Buffer source, long byteCount) throws IOException {
+      super.write(source, byteCount);
+      bytes += byteCount;
+    }
+  }
+
+  /** Sink failing once more than a given number of bytes are written. */
+  private static final class LimitedSink extends CountingSink {
+    private final long limit;
+
+    LimitedSink(Sink delegate, long limit) {
+      super(delegate);
+      this.limit = limit;
+    }
+
+    @Override
+    public void write(Buffer source, long byteCount) throws IOException {
+      if (bytes + byteCount > limit) {
+        throw new BodyTooLargeException();
+      }
+      super.write(source, byteCount);
+    }
+  }
+
+  private static final class BodyTooLargeException extends IOException {
+    private static final long serialVersionUID = 1L;
+  }
+}
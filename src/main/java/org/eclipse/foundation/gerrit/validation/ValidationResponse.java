@@ -13,7 +13,9 @@ package org.eclipse.foundation.gerrit.validation;
 import com.google.auto.value.AutoValue;
 import com.squareup.moshi.JsonAdapter;
 import com.squareup.moshi.Moshi;
+import java.util.Collections;
 import java.util.Map;
+import java.util.Optional;
 
 /**
  * Represents an internal response for a call to this API.
@@ -36,6 +38,35 @@ public abstract class ValidationResponse {
     return new AutoValue_ValidationResponse.MoshiJsonAdapter(moshi);
   }
 
+  /**
+   * Narrows a response covering several commits down to the status of a single one of them, so that
+   * the result of a batched request can be reported per commit.
+   *
+   * @param hash the hash of the commit
+   * @return the response for that single commit, or empty if the API did not report on it
+   */
+  public Optional<ValidationResponse> forCommit(String hash) {
+    CommitStatus status = commits().get(hash);
+    if (status == null) {
+      return Optional.empty();
+    }
+    if (commits().size() == 1) {
+      return Optional.of(this);
+    }
+    return Optional.of(
+        builder()
+            .passed(status.errors().isEmpty())
+            .errorCount(status.errors().size())
+            .time(time())
+            .commits(Collections.singletonMap(hash, status))
+            .trackedProject(trackedProject())
+            .build());
+  }
+
+  static Builder builder() {
+    return new AutoValue_ValidationResponse.Builder();
+  }
+
   @Override
   public String toString() {
     StringBuilder builder = new StringBuilder();
@@ -52,4 +83,19 @@ public abstract class ValidationResponse {
     builder.append("]");
     return builder.toString();
   }
+
+  @AutoValue.Builder
+  abstract static class Builder {
+    public abstract Builder passed(boolean passed);
+
+    public abstract Builder errorCount(int errorCount);
+
+    public abstract Builder time(String time);
+
+    public abstract Builder commits(Map<String, CommitStatus> commits);
+
+    public abstract Builder trackedProject(boolean trackedProject);
+
+    abstract ValidationResponse build();
+  }
 }
@@ -0,0 +1,238 @@
+/**
+ * ***************************************************************************** Copyright (c) 2025
+ * Eclipse Foundation and others. All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0 which accompanies this
+ * distribution, and is available at http://www.eclipse.org/legal/epl-v10.html
+ * *****************************************************************************
+ */
+package org.eclipse.foundation.gerrit.validation;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.FluentIterable;
+import com.google.common.collect.ImmutableList;
+import com.google.gerrit.entities.Account;
+import com.google.gerrit.entities.BranchNameKey;
+import com.google.gerrit.entities.Change;
+import com.google.gerrit.entities.PatchSet;
+import com.google.gerrit.entities.Project;
+import com.google.gerrit.metrics.DisabledMetricMaker;
+import com.google.gerrit.server.IdentifiedUser;
+import com.google.gerrit.server.account.GroupBackend;
+import com.google.gerrit.server.cache.PerThreadCache;
+import com.google.gerrit.server.config.PluginConfig;
+import com.google.gerrit.server.config.PluginConfigFactory;
+import com.google.gerrit.server.git.GitRepositoryManager;
+import com.google.gerrit.server.project.ProjectCache;
+import com.google.gerrit.server.project.ProjectState;
+import com.google.gerrit.server.query.change.ChangeData;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import org.eclipse.jgit.internal.storage.dfs.DfsRepositoryDescription;
+import org.eclipse.jgit.internal.storage.dfs.InMemoryRepository;
+import org.eclipse.jgit.lib.CommitBuilder;
+import org.eclipse.jgit.lib.Config;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectInserter;
+import org.eclipse.jgit.lib.PersonIdent;
+import org.eclipse.jgit.lib.TreeFormatter;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ECASignedSubmitRequirementTest {
+  private static final String PLUGIN_NAME = "eca-validation";
+  private static final Project.NameKey PROJECT = Project.nameKey("test/project");
+
+  /** Backend passing every commit, counting the number of times each commit is validated. */
+  private static class CountingBackend implements EcaBackend {
+    final Map<String, Integer> validations = new ConcurrentHashMap<>();
+
+    @Override
+    public CompletableFuture<ValidationResponse> validate(
+        ValidationRequest request, int timeoutSecs) {
+      Map<String, CommitStatus> statuses = new LinkedHashMap<>();
+      for (Commit c : request.commits()) {
+        validations.merge(c.hash(), 1, Integer::sum);
+        statuses.put(
+            c.hash(),
+            CommitStatus.create(ImmutableList.of(), ImmutableList.of(), ImmutableList.of()));
+      }
+      return CompletableFuture.completedFuture(
+          ValidationResponse.builder()
+              .passed(true)
+              .errorCount(0)
+              .time(Instant.now().toString())
+              .commits(statuses)
+              .trackedProject(true)
+              .build());
+    }
+  }
+
+  private final PersonIdent ident = new PersonIdent("Test Author", "test.author@example.org");
+
+  private InMemoryRepository repo;
+  private CountingBackend backend;
+  private EcaVerdictPrecomputer precomputer;
+  private ECASignedSubmitRequirement requirement;
+  private List<ChangeData> changes;
+
+  @Before
+  public void setUp() throws Exception {
+    repo = new InMemoryRepository(new DfsRepositoryDescription(PROJECT.get()));
+    backend = new CountingBackend();
+    precomputer = mock(EcaVerdictPrecomputer.class);
+
+    Config cfg = new Config();
+    cfg.setBoolean("plugin", PLUGIN_NAME, "enabled", true);
+    ProjectState projectState = mock(ProjectState.class);
+    when(projectState.parents()).thenReturn(FluentIterable.of());
+    ProjectCache projectCache = mock(ProjectCache.class);
+    when(projectCache.get(PROJECT)).thenReturn(Optional.of(projectState));
+    PluginConfigFactory pluginCfgFactory = mock(PluginConfigFactory.class);
+    when(pluginCfgFactory.getFromProjectConfigWithInheritance(projectState, PLUGIN_NAME))
+        .thenReturn(PluginConfig.create(PLUGIN_NAME, cfg, null));
+    GitRepositoryManager repoManager = mock(GitRepositoryManager.class);
+    when(repoManager.openRepository(PROJECT))
+        .thenAnswer(
+            invocation -> {
+              repo.incrementOpen();
+              return repo;
+            });
+
+    EcaMetrics metrics = new EcaMetrics(new DisabledMetricMaker());
+    // the identity cache and the verdict store are disabled, only the request memoizes verdicts
+    requirement =
+        new ECASignedSubmitRequirement(
+            repoManager,
+            new EcaProjectConfig.Factory(projectCache, pluginCfgFactory, PLUGIN_NAME),
+            PLUGIN_NAME,
+            backend,
+            new EcaIdentityCache(
+                CacheBuilder.newBuilder().maximumSize(0).build(),
+                CacheBuilder.newBuilder().build(),
+                EcaSharedStore.LOCAL,
+                new Config(),
+                PLUGIN_NAME),
+            new InFlightValidations(metrics),
+            metrics,
+            new EcaVerdictStore(
+                CacheBuilder.newBuilder().maximumSize(0).build(),
+                EcaSharedStore.LOCAL,
+                new Config(),
+                PLUGIN_NAME),
+            new EcaExclusions.Checker(mock(GroupBackend.class)),
+            mock(IdentifiedUser.GenericFactory.class),
+            precomputer,
+            mock(EcaDeferredValidator.class));
+    changes = createChanges(3);
+  }
+
+  @Test
+  public void changesAreValidatedOncePerRequest() {
+    try (PerThreadCache cache = PerThreadCache.create()) {
+      // the submit requirement and the change details of the same request
+      for (int i = 0; i < 3; i++) {
+        for (ChangeData cd : changes) {
+          assertThat(requirement.evaluate(cd)).isTrue();
+        }
+      }
+      assertThat(requirement.evaluate(changes, true).values()).containsExactly(true, true, true);
+    }
+
+    assertValidations(1);
+  }
+
+  @Test
+  public void changesAreValidatedAgainInTheNextRequest() {
+    for (int i = 0; i < 2; i++) {
+      try (PerThreadCache cache = PerThreadCache.create()) {
+        changes.forEach(requirement::evaluate);
+        changes.forEach(requirement::evaluate);
+      }
+    }
+
+    assertValidations(2);
+  }
+
+  @Test
+  public void changesAreValidatedEachTimeOutsideOfARequest() {
+    changes.forEach(requirement::evaluate);
+    changes.forEach(requirement::evaluate);
+
+    assertValidations(2);
+  }
+
+  @Test
+  public void changesWaitForTheirPrecomputedVerdict() {
+    when(precomputer.isEnabled()).thenReturn(true);
+    changes.forEach(cd -> when(precomputer.isPending(PROJECT, cd.getId())).thenReturn(true));
+
+    changes.forEach(cd -> assertThat(requirement.evaluate(cd)).isFalse());
+
+    assertThat(backend.validations).isEmpty();
+  }
+
+  @Test
+  public void changesWithoutPrecomputationAreValidatedOnDemand() {
+    // e.g. the precomputation gave up during an outage of the ECA API
+    when(precomputer.isEnabled()).thenReturn(true);
+
+    changes.forEach(cd -> assertThat(requirement.evaluate(cd)).isTrue());
+
+    assertValidations(1);
+  }
+
+  private void assertValidations(int expected) {
+    assertThat(backend.validations).hasSize(changes.size());
+    for (ChangeData cd : changes) {
+      assertThat(backend.validations)
+          .containsEntry(cd.currentPatchSet().commitId().name(), expected);
+    }
+  }
+
+  private List<ChangeData> createChanges(int count) throws Exception {
+    List<ChangeData> result = new ArrayList<>(count);
+    try (ObjectInserter ins = repo.newObjectInserter()) {
+      ObjectId tree = ins.insert(new TreeFormatter());
+      for (int i = 1; i <= count; i++) {
+        CommitBuilder cb = new CommitBuilder();
+        cb.setTreeId(tree);
+        cb.setAuthor(ident);
+        cb.setCommitter(ident);
+        cb.setMessage("Change " + i);
+        ObjectId commitId = ins.insert(cb);
+
+        Change.Id id = Change.id(i);
+        Change change =
+            new Change(
+                Change.key("I" + commitId.name()),
+                id,
+                Account.id(1000000),
+                BranchNameKey.create(PROJECT, "master"),
+                Instant.now());
+        PatchSet ps = mock(PatchSet.class);
+        when(ps.id()).thenReturn(PatchSet.id(id, 1));
+        when(ps.commitId()).thenReturn(commitId);
+        ChangeData cd = mock(ChangeData.class);
+        when(cd.change()).thenReturn(change);
+        when(cd.getId()).thenReturn(id);
+        when(cd.project()).thenReturn(PROJECT);
+        when(cd.currentPatchSet()).thenReturn(ps);
+        when(cd.getAuthor()).thenReturn(ident);
+        when(cd.getCommitter()).thenReturn(ident);
+        result.add(cd);
+      }
+      ins.flush();
+    }
+    return result;
+  }
+}
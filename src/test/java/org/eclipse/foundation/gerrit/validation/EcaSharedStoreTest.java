@@ -0,0 +1,158 @@
+/**
+ * ***************************************************************************** Copyright (c) 2025
+ * Eclipse Foundation and others. All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0 which accompanies this
+ * distribution, and is available at http://www.eclipse.org/legal/epl-v10.html
+ * *****************************************************************************
+ */
+package org.eclipse.foundation.gerrit.validation;
+
+import static com.google.common.truth.Truth.assertThat;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+import com.google.gerrit.entities.Project;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.jgit.lib.Config;
+import org.eclipse.jgit.lib.ObjectId;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+/** Two instances of the plugin, e.g. on two nodes of a cluster, sharing one store. */
+@RunWith(Parameterized.class)
+public class EcaSharedStoreTest {
+  private static final String PLUGIN_NAME = "eca-validation";
+  private static final Project.NameKey PROJECT = Project.nameKey("shared/project");
+  private static final ObjectId COMMIT =
+      ObjectId.fromString("0123456789abcdef0123456789abcdef01234567");
+
+  @Parameters(name = "{0}")
+  public static Collection<Object[]> types() {
+    return Arrays.asList(
+        new Object[] {EcaSharedStore.Type.MEMORY}, new Object[] {EcaSharedStore.Type.FILE});
+  }
+
+  @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+  private final EcaSharedStore.Type type;
+
+  private EcaSharedStore store;
+  private EcaVerdictStore node1;
+  private EcaVerdictStore node2;
+
+  public EcaSharedStoreTest(EcaSharedStore.Type type) {
+    this.type = type;
+  }
+
+  @Before
+  public void setUp() throws Exception {
+    store =
+        type == EcaSharedStore.Type.MEMORY
+            ? InMemorySharedStore.INSTANCE
+            : new FileSharedStore(folder.newFolder("shared").toPath(), TimeUnit.DAYS.toMillis(1));
+    node1 = newVerdictStore();
+    node2 = newVerdictStore();
+  }
+
+  @After
+  public void tearDown() {
+    InMemorySharedStore.INSTANCE.clear();
+  }
+
+  @Test
+  public void verdictStoredByOneInstanceIsReadByTheOther() {
+    assertThat(node2.get(PROJECT, COMMIT)).isEqualTo(Optional.empty());
+
+    EcaVerdict verdict = EcaVerdict.create(true, true, System.currentTimeMillis());
+    node1.put(PROJECT, COMMIT, verdict);
+
+    assertThat(node2.get(PROJECT, COMMIT)).isEqualTo(Optional.of(verdict));
+  }
+
+  @Test
+  public void verdictsAreKeptPerProject() {
+    node1.put(PROJECT, COMMIT, EcaVerdict.create(true, true, System.currentTimeMillis()));
+
+    assertThat(node2.get(Project.nameKey("other/project"), COMMIT)).isEqualTo(Optional.empty());
+  }
+
+  @Test
+  public void failingVerdictEvictedByOneInstanceIsNotReadByTheOther() {
+    node1.put(PROJECT, COMMIT, EcaVerdict.create(false, true, System.currentTimeMillis()));
+
+    node1.evictFailing(PROJECT, COMMIT);
+
+    assertThat(node2.get(PROJECT, COMMIT)).isEqualTo(Optional.empty());
+  }
+
+  @Test
+  public void identityVerdictOfATrackedProjectIsReadByTheOther() {
+    EcaIdentityCache identities1 = newIdentityCache();
+    EcaIdentityCache identities2 = newIdentityCache();
+    Commit commit = commit();
+    identities1.record(
+        PROJECT,
+        Collections.singletonList(commit),
+        ValidationResponse.builder()
+            .passed(true)
+            .errorCount(0)
+            .time(Instant.now().toString())
+            .commits(
+                Collections.singletonMap(
+                    commit.hash(),
+                    CommitStatus.create(
+                        ImmutableList.of(), ImmutableList.of(), ImmutableList.of())))
+            .trackedProject(true)
+            .build());
+
+    // e.g. after a restart, without any response for the project yet
+    assertThat(identities2.isTracked(PROJECT)).isTrue();
+    assertThat(identities2.lookup(PROJECT, commit).map(s -> s.errors().isEmpty()))
+        .isEqualTo(Optional.of(true));
+  }
+
+  @Test
+  public void invalidSharedEntryIsIgnored() {
+    store.put(EcaVerdictStore.CACHE_NAME, COMMIT.name() + ":" + PROJECT.get(), "{".getBytes(UTF_8));
+
+    assertThat(node2.get(PROJECT, COMMIT)).isEqualTo(Optional.empty());
+  }
+
+  private EcaIdentityCache newIdentityCache() {
+    return new EcaIdentityCache(
+        CacheBuilder.newBuilder().build(),
+        CacheBuilder.newBuilder().build(),
+        store,
+        new Config(),
+        PLUGIN_NAME);
+  }
+
+  private static Commit commit() {
+    GitUser author = GitUser.builder().name("Test Author").mail("test.author@example.org").build();
+    return Commit.builder()
+        .hash(COMMIT.name())
+        .subject("Commit")
+        .body("")
+        .parents(Collections.emptyList())
+        .author(author)
+        .committer(author)
+        .head(true)
+        .build();
+  }
+
+  private EcaVerdictStore newVerdictStore() {
+    return new EcaVerdictStore(CacheBuilder.newBuilder().build(), store, new Config(), PLUGIN_NAME);
+  }
+}
@@ -0,0 +1,142 @@
+/**
+ * ***************************************************************************** Copyright (c) 2025
+ * Eclipse Foundation and others. All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0 which accompanies this
+ * distribution, and is available at http://www.eclipse.org/legal/epl-v10.html
+ * *****************************************************************************
+ */
+package org.eclipse.foundation.gerrit.validation;
+
+import com.google.common.collect.ImmutableList;
+import com.squareup.moshi.JsonAdapter;
+import com.squareup.moshi.Moshi;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import okhttp3.HttpUrl;
+import okhttp3.Interceptor;
+import okio.Buffer;
+import okio.Okio;
+import org.eclipse.foundation.gerrit.validation.CommitStatus.CommitStatusMessage;
+
+/**
+ * In-process stand-in for the ECA API, answering every validation request with a passing status
+ * for each of its commits after an optional simulated latency. Shared by the tests and the
+ * benchmarks.
+ */
+final class MockEcaServer implements AutoCloseable {
+  private final HttpServer server;
+  private final ExecutorService executor;
+  private final JsonAdapter<ValidationRequest> requestAdapter;
+  private final JsonAdapter<ValidationResponse> responseAdapter;
+  private final long latencyMillis;
+  private final AtomicInteger requests = new AtomicInteger();
+  private final Set<InetSocketAddress> clients = ConcurrentHashMap.newKeySet();
+
+  MockEcaServer(long latencyMillis) throws IOException {
+    Moshi moshi = new Moshi.Builder().add(JsonAdapterFactory.create()).build();
+    this.requestAdapter = moshi.adapter(ValidationRequest.class);
+    this.responseAdapter = moshi.adapter(ValidationResponse.class);
+    this.latencyMillis = latencyMillis;
+    this.executor = Executors.newCachedThreadPool();
+    this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+    server.createContext("/git/eca", this::validate);
+    server.setExecutor(executor);
+    server.start();
+  }
+
+  /** Interceptor routing the requests of the plugin, whatever their base URL, to this server. */
+  Interceptor router() {
+    HttpUrl local =
+        new HttpUrl.Builder()
+            .scheme("http")
+            .host(server.getAddress().getHostString())
+            .port(server.getAddress().getPort())
+            .build();
+    return chain -> {
+      HttpUrl url =
+          chain
+              .request()
+              .url()
+              .newBuilder()
+              .scheme(local.scheme())
+              .host(local.host())
+              .port(local.port())
+              .build();
+      return chain.proceed(chain.request().newBuilder().url(url).build());
+    };
+  }
+
+  /** Number of validation requests received so far. */
+  int requests() {
+    return requests.get();
+  }
+
+  /** Number of distinct client connections the requests were received on so far. */
+  int connections() {
+    return clients.size();
+  }
+
+  private void validate(HttpExchange ex) throws IOException {
+    requests.incrementAndGet();
+    clients.add(ex.getRemoteAddress());
+    // HttpExchange is only AutoCloseable from Java 11 on
+    try {
+      ValidationRequest request =
+          requestAdapter.fromJson(Okio.buffer(Okio.source(ex.getRequestBody())));
+      Map<String, CommitStatus> statuses = new LinkedHashMap<>();
+      for (Commit c : request.commits()) {
+        CommitStatusMessage message =
+            CommitStatusMessage.create(
+                200,
+                String.format(
+                    "%s is covered by the necessary legal agreements.", c.author().mail()));
+        statuses.put(
+            c.hash(),
+            CommitStatus.create(ImmutableList.of(message), ImmutableList.of(), ImmutableList.of()));
+      }
+      Buffer body = new Buffer();
+      responseAdapter.toJson(
+          body,
+          ValidationResponse.builder()
+              .passed(true)
+              .errorCount(0)
+              .time(Instant.now().toString())
+              .commits(statuses)
+              .trackedProject(true)
+              .build());
+      if (latencyMillis > 0) {
+        TimeUnit.MILLISECONDS.sleep(latencyMillis);
+      }
+      ex.getResponseHeaders()
+          .add("Content-Type", "application/json; charset=" + StandardCharsets.UTF_8.name());
+      ex.sendResponseHeaders(200, body.size());
+      try (OutputStream out = ex.getResponseBody()) {
+        body.writeTo(out);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      ex.close();
+    }
+  }
+
+  @Override
+  public void close() {
+    server.stop(0);
+    executor.shutdownNow();
+  }
+}
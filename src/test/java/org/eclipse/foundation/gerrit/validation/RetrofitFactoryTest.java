@@ -0,0 +1,101 @@
+/**
+ * ***************************************************************************** Copyright (c) 2025
+ * Eclipse Foundation and others. All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0 which accompanies this
+ * distribution, and is available at http://www.eclipse.org/legal/epl-v10.html
+ * *****************************************************************************
+ */
+package org.eclipse.foundation.gerrit.validation;
+
+import static com.google.common.truth.Truth.assertThat;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import com.google.gerrit.metrics.DisabledMetricMaker;
+import java.util.Collections;
+import java.util.Optional;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class RetrofitFactoryTest {
+  private static final int TIMEOUT_SECS = 10;
+
+  private MockEcaServer server;
+  private RetrofitFactory retrofitFactory;
+
+  @Before
+  public void setUp() throws Exception {
+    server = new MockEcaServer(0);
+    retrofitFactory =
+        new RetrofitFactory(
+            5, 300, 64, 16, new EcaMetrics(new DisabledMetricMaker()), server.router());
+    retrofitFactory.start();
+  }
+
+  @After
+  public void tearDown() {
+    retrofitFactory.stop();
+    server.close();
+  }
+
+  @Test
+  public void consecutiveValidationsReuseTheSameConnection() throws Exception {
+    EcaBackend backend =
+        new ApiEcaBackend(
+            retrofitFactory,
+            new EcaCircuitBreaker(0, 30),
+            APIService.DEFAULT_BASE_URL,
+            APIService.DEFAULT_PATH,
+            Optional.empty());
+
+    for (int i = 0; i < 5; i++) {
+      ValidationResponse response =
+          backend.validate(request(i), TIMEOUT_SECS).get(TIMEOUT_SECS, SECONDS);
+      assertThat(response.passed()).isTrue();
+    }
+
+    assertThat(server.requests()).isEqualTo(5);
+    assertThat(server.connections()).isEqualTo(1);
+  }
+
+  @Test
+  public void servicesAreSharedPerBaseUrlAndTimeout() {
+    APIService service =
+        retrofitFactory.newService(APIService.DEFAULT_BASE_URL, TIMEOUT_SECS, APIService.class);
+
+    assertThat(
+            retrofitFactory.newService(
+                APIService.DEFAULT_BASE_URL, TIMEOUT_SECS, APIService.class))
+        .isSameInstanceAs(service);
+    assertThat(
+            retrofitFactory.newService(
+                APIService.DEFAULT_BASE_URL, TIMEOUT_SECS + 1, APIService.class))
+        .isNotSameInstanceAs(service);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void servicesRequireAStartedClient() {
+    retrofitFactory.stop();
+    retrofitFactory.newService(APIService.DEFAULT_BASE_URL, TIMEOUT_SECS, APIService.class);
+  }
+
+  private static ValidationRequest request(int i) {
+    GitUser author = GitUser.builder().name("Test Author").mail("test.author@example.org").build();
+    Commit commit =
+        Commit.builder()
+            .hash(String.format("%040x", i))
+            .subject("Commit " + i)
+            .body("")
+            .parents(Collections.emptyList())
+            .author(author)
+            .committer(author)
+            .head(true)
+            .build();
+    return ValidationRequest.builder()
+        .repoUrl("test/project")
+        .provider("gerrit")
+        .strictMode(true)
+        .commits(Collections.singletonList(commit))
+        .build();
+  }
+}
@@ -0,0 +1,90 @@
+/**
+ * ***************************************************************************** Copyright (c) 2025
+ * Eclipse Foundation and others. All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0 which accompanies this
+ * distribution, and is available at http://www.eclipse.org/legal/epl-v10.html
+ * *****************************************************************************
+ */
+package org.eclipse.foundation.gerrit.validation;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.base.Strings;
+import com.squareup.moshi.Moshi;
+import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import okhttp3.RequestBody;
+import okio.Buffer;
+import org.junit.Before;
+import org.junit.Test;
+import retrofit2.Converter;
+
+public class StreamingJsonConverterFactoryTest {
+  private final List<Long> recordedSizes = new ArrayList<>();
+
+  private Converter<ValidationRequest, RequestBody> converter;
+
+  @Before
+  @SuppressWarnings("unchecked")
+  public void setUp() {
+    Moshi moshi = new Moshi.Builder().add(JsonAdapterFactory.create()).build();
+    converter =
+        (Converter<ValidationRequest, RequestBody>)
+            new StreamingJsonConverterFactory(moshi, recordedSizes::add)
+                .requestBodyConverter(
+                    ValidationRequest.class, new Annotation[0], new Annotation[0], null);
+  }
+
+  @Test
+  public void smallBodiesAreSentWithTheirLength() throws Exception {
+    RequestBody body = converter.convert(request(""));
+
+    assertThat(body.contentLength()).isGreaterThan(0L);
+    assertThat(body.contentLength()).isEqualTo(written(body).size());
+    assertThat(body.contentLength()).isEqualTo(written(body).size());
+    // recorded by the interceptor of the client, from the length
+    assertThat(recordedSizes).isEmpty();
+  }
+
+  @Test
+  public void largeBodiesAreStreamedAndRecordedOnce() throws Exception {
+    RequestBody body =
+        converter.convert(
+            request(Strings.repeat("x", (int) StreamingJsonConverterFactory.MAX_BUFFERED_BYTES)));
+
+    assertThat(body.contentLength()).isEqualTo(-1L);
+    long size = written(body).size();
+    // e.g. a retry
+    assertThat(written(body).size()).isEqualTo(size);
+    assertThat(size).isGreaterThan(StreamingJsonConverterFactory.MAX_BUFFERED_BYTES);
+    assertThat(recordedSizes).containsExactly(size);
+  }
+
+  private static Buffer written(RequestBody body) throws Exception {
+    Buffer buffer = new Buffer();
+    body.writeTo(buffer);
+    return buffer;
+  }
+
+  private static ValidationRequest request(String body) {
+    GitUser author = GitUser.builder().name("Test Author").mail("test.author@example.org").build();
+    Commit commit =
+        Commit.builder()
+            .hash(Strings.repeat("0", 40))
+            .subject("Commit")
+            .body(body)
+            .parents(Collections.emptyList())
+            .author(author)
+            .committer(author)
+            .head(true)
+            .build();
+    return ValidationRequest.builder()
+        .repoUrl("test/project")
+        .provider("gerrit")
+        .strictMode(true)
+        .commits(Collections.singletonList(commit))
+        .build();
+  }
+}